@@ -0,0 +1,102 @@
+package com.games.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+// Stateless login: the SessionUser is carried in an HMAC-signed bearer token instead of an
+// HttpSession, so any node can serve any request. Enabled with playhive.auth.mode=token;
+// every node must share playhive.auth.token-secret for tokens to verify across them.
+@Service
+public class AuthTokenService {
+
+    private static final String HMAC = "HmacSHA256";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final boolean stateless;
+    private final byte[] secret;
+    private final Duration ttl;
+
+    public AuthTokenService(@Value("${playhive.auth.mode:session}") String mode,
+                            @Value("${playhive.auth.token-secret:}") String secret,
+                            @Value("${playhive.auth.token-ttl-minutes:30}") long ttlMinutes) {
+        this.stateless = "token".equalsIgnoreCase(mode);
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        if (secret.isBlank()) {
+            this.secret = new byte[32];
+            new SecureRandom().nextBytes(this.secret);
+            if (stateless) {
+                System.out.println("⚠️ No playhive.auth.token-secret set, tokens will only verify on this node");
+            }
+        } else {
+            this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    public boolean isStateless() {
+        return stateless;
+    }
+
+    public String issue(SessionUser user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("id", user.getId());
+        claims.put("username", user.getUsername());
+        claims.put("email", user.getEmail());
+        claims.put("exp", Instant.now().plus(ttl).getEpochSecond());
+        try {
+            String payload = encode(objectMapper.writeValueAsBytes(claims));
+            return payload + "." + encode(sign(payload));
+        } catch (Exception e) {
+            throw new RuntimeException("Could not issue token", e);
+        }
+    }
+
+    // Empty for anything malformed, tampered with or expired
+    public Optional<SessionUser> verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return Optional.empty();
+        }
+        String payload = token.substring(0, dot);
+        try {
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, sign(payload))) {
+                return Optional.empty();
+            }
+            Map<?, ?> claims = objectMapper.readValue(Base64.getUrlDecoder().decode(payload), Map.class);
+            if (((Number) claims.get("exp")).longValue() < Instant.now().getEpochSecond()) {
+                return Optional.empty();
+            }
+            return Optional.of(new SessionUser(((Number) claims.get("id")).longValue(),
+                (String) claims.get("username"), (String) claims.get("email")));
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(String payload) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance(HMAC);
+        mac.init(new SecretKeySpec(secret, HMAC));
+        return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
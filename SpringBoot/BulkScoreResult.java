@@ -0,0 +1,62 @@
+package com.games.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Outcome of a bulk upload: one entry per round, in upload order, with either its score id,
+// the reason it was rejected, or (pending) a retry of an earlier submission that hasn't
+// committed yet and may still be saved. error is set when the upload stopped before its end.
+public class BulkScoreResult {
+
+    private final List<Map<String, Object>> results = new ArrayList<>();
+    private int saved;
+    private int failed;
+    private int pending;
+    private String error;
+
+    void saved(int index, Long scoreId) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("index", index);
+        row.put("scoreId", scoreId);
+        results.add(row);
+        saved++;
+    }
+
+    void failed(int index, String message) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("index", index);
+        row.put("error", message);
+        results.add(row);
+        failed++;
+    }
+
+    void pending(int index, String message) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("index", index);
+        row.put("status", "pending");
+        row.put("message", message);
+        results.add(row);
+        pending++;
+    }
+
+    void abort(String message) {
+        this.error = message;
+    }
+
+    public boolean isComplete() {
+        return error == null;
+    }
+
+    public int getSaved() { return saved; }
+    public int getFailed() { return failed; }
+    public int getPending() { return pending; }
+    public String getError() { return error; }
+
+    public List<Map<String, Object>> getResults() {
+        results.sort(Comparator.comparingInt(row -> (Integer) row.get("index")));
+        return results;
+    }
+}
@@ -0,0 +1,62 @@
+package com.games.controller;
+
+import com.games.service.ChampionEntry;
+import com.games.service.CrossGameLeaderboard;
+import com.games.service.LeaderboardCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/champions")
+@CrossOrigin(
+    origins = { "http://localhost:5500", "http://127.0.0.1:5500" },
+    allowCredentials = "true"
+)
+public class ChampionController {
+
+    // Deep offsets still cost (page + 1) * size merged rows, so cap how far back we go
+    private static final int MAX_PAGE = 50;
+
+    @Autowired
+    private CrossGameLeaderboard crossGameLeaderboard;
+
+    // 🏆 GET PLAYHIVE CHAMPION BOARD - every game on one normalized scale
+    @GetMapping
+    public ResponseEntity<?> getChampions(@RequestParam(defaultValue = "0") int page,
+                                          @RequestParam(required = false) Integer size) {
+        if (page < 0 || page > MAX_PAGE) {
+            return ResponseEntity.badRequest()
+                    .body(createErrorResponse("page must be between 0 and " + MAX_PAGE));
+        }
+
+        try {
+            int pageSize = LeaderboardCursor.clampPageSize(size);
+            List<ChampionEntry> entries = crossGameLeaderboard.getPage(page, pageSize);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("page", page);
+            response.put("size", pageSize);
+            response.put("items", entries);
+            response.put("hasMore", entries.size() == pageSize && page < MAX_PAGE);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error retrieving champion board: " + e.getMessage()));
+        }
+    }
+
+    private Map<String, Object> createErrorResponse(String error) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "error");
+        response.put("error", error);
+        response.put("timestamp", LocalDateTime.now());
+        return response;
+    }
+}
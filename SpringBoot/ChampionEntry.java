@@ -0,0 +1,33 @@
+package com.games.service;
+
+import java.time.LocalDateTime;
+
+// One row of the cross-game board: a single score, rescaled so games are comparable
+public class ChampionEntry {
+
+    private final GameType game;
+    private final Long scoreId;
+    private final String username;
+    private final int score;
+    private final double normalizedScore;
+    private final LocalDateTime playedAt;
+
+    public ChampionEntry(GameType game, Long scoreId, String username, int score,
+                         double normalizedScore, LocalDateTime playedAt) {
+        this.game = game;
+        this.scoreId = scoreId;
+        this.username = username;
+        this.score = score;
+        this.normalizedScore = normalizedScore;
+        this.playedAt = playedAt;
+    }
+
+    public String getGame() { return game.getKey(); }
+    public Long getScoreId() { return scoreId; }
+    public String getUsername() { return username; }
+    public int getScore() { return score; }
+    public double getNormalizedScore() { return normalizedScore; }
+    public LocalDateTime getPlayedAt() { return playedAt; }
+
+    GameType gameType() { return game; }
+}
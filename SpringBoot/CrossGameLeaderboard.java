@@ -0,0 +1,117 @@
+package com.games.service;
+
+import com.games.model.EmojiScore;
+import com.games.model.MindloopScore;
+import com.games.model.ShapeShifterScore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+// "PlayHive champion" board across every game.
+// Each game's leaderboard is already sorted, and rescaling against the game's best score
+// keeps it sorted, so a lazy k-way merge reads only as many rows as the requested page needs.
+@Service
+public class CrossGameLeaderboard {
+
+    // A game's current best score maps to this many points
+    public static final double NORMALIZED_SCALE = 1000.0;
+
+    private static final Comparator<ChampionEntry> ORDER =
+        Comparator.comparingDouble(ChampionEntry::getNormalizedScore).reversed()
+            .thenComparing(Comparator.comparingInt(ChampionEntry::getScore).reversed())
+            .thenComparing(ChampionEntry::gameType)
+            .thenComparing(ChampionEntry::getScoreId);
+
+    @Autowired
+    private LeaderboardIndex leaderboardIndex;
+
+    @Autowired
+    private EmojiScoreService emojiScoreService;
+
+    @Autowired
+    private MindloopScoreService mindloopScoreService;
+
+    @Autowired
+    private ShapeShifterScoreService shapeShifterScoreService;
+
+    // Zero-based page of the merged board
+    public List<ChampionEntry> getPage(int page, int pageSize) {
+        // Source pages no larger than what this request can consume
+        int chunk = Math.min(LeaderboardCursor.MAX_PAGE_SIZE, (page + 1) * pageSize);
+
+        double emojiBest = best(leaderboardIndex.emojiTop().stream().map(EmojiScore::getScore).findFirst().orElse(0));
+        double mindloopBest = best(leaderboardIndex.mindloopTop().stream().map(MindloopScore::getScore).findFirst().orElse(0));
+        double shapeShifterBest = best(leaderboardIndex.shapeShifterTop().stream().map(ShapeShifterScore::getScore).findFirst().orElse(0));
+
+        List<Iterator<ChampionEntry>> sources = List.of(
+            map(new PagedIterator<>(token -> emojiScoreService.getFullLeaderboard(token, chunk)),
+                score -> new ChampionEntry(GameType.EMOJI, score.getId(), score.getUser().getUsername(),
+                    score.getScore(), normalize(score.getScore(), emojiBest), score.getPlayedAt())),
+            map(new PagedIterator<>(token -> mindloopScoreService.getFullLeaderboard(token, chunk)),
+                score -> new ChampionEntry(GameType.MINDLOOP, score.getId(), score.getUser().getUsername(),
+                    score.getScore(), normalize(score.getScore(), mindloopBest), score.getPlayedAt())),
+            map(new PagedIterator<>(token -> shapeShifterScoreService.getLeaderboardPage(token, chunk)),
+                score -> new ChampionEntry(GameType.SHAPESHIFTER, score.getId(), score.getUsername(),
+                    score.getScore(), normalize(score.getScore(), shapeShifterBest), score.getCreatedAt()))
+        );
+
+        return merge(sources, (long) page * pageSize, pageSize);
+    }
+
+    // Skip `skip` merged rows, then take `limit`; sources are pulled only as far as that
+    private List<ChampionEntry> merge(List<Iterator<ChampionEntry>> sources, long skip, int limit) {
+        PriorityQueue<Head> heads = new PriorityQueue<>((a, b) -> ORDER.compare(a.entry, b.entry));
+        for (Iterator<ChampionEntry> source : sources) {
+            if (source.hasNext()) {
+                heads.add(new Head(source.next(), source));
+            }
+        }
+
+        List<ChampionEntry> result = new ArrayList<>(limit);
+        long position = 0;
+        while (!heads.isEmpty() && result.size() < limit) {
+            Head head = heads.poll();
+            if (position++ >= skip) {
+                result.add(head.entry);
+            }
+            if (head.source.hasNext()) {
+                heads.add(new Head(head.source.next(), head.source));
+            }
+        }
+        return result;
+    }
+
+    private static double best(int topScore) {
+        return Math.max(1, topScore);
+    }
+
+    private static double normalize(int score, double best) {
+        return Math.round(Math.max(0, score) / best * NORMALIZED_SCALE * 100) / 100.0;
+    }
+
+    private static <T> Iterator<ChampionEntry> map(Iterator<T> source, Function<T, ChampionEntry> mapper) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() { return source.hasNext(); }
+
+            @Override
+            public ChampionEntry next() { return mapper.apply(source.next()); }
+        };
+    }
+
+    private static final class Head {
+        final ChampionEntry entry;
+        final Iterator<ChampionEntry> source;
+
+        Head(ChampionEntry entry, Iterator<ChampionEntry> source) {
+            this.entry = entry;
+            this.source = source;
+        }
+    }
+}
@@ -8,11 +8,13 @@ import java.time.LocalDateTime;
 public class EmojiScore {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "emoji_scores_seq")
+    @SequenceGenerator(name = "emoji_scores_seq", sequenceName = "emoji_scores_seq", allocationSize = 50)
     @Column(name = "id", columnDefinition = "BIGINT")
     private Long id;
     
-    @ManyToOne
+    // Lazy: score queries state whether they need the user (see the repositories' entity graphs)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false, columnDefinition = "BIGINT")
     private User user;
    
@@ -35,6 +37,10 @@ public class EmojiScore {
     @Column(name = "played_at")
     private LocalDateTime playedAt;
     
+    // Client-supplied dedup key, unique per user (see V4__score_idempotency_keys.sql) so a retried submit can't insert twice
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+    
     // Constructors
     public EmojiScore() {
         this.playedAt = LocalDateTime.now();
@@ -77,4 +83,7 @@ public class EmojiScore {
     
     public LocalDateTime getPlayedAt() { return playedAt; }
     public void setPlayedAt(LocalDateTime playedAt) { this.playedAt = playedAt; }
+    
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
 }
\ No newline at end of file
@@ -1,17 +1,46 @@
 package com.games.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.games.model.EmojiScore;
 import com.games.model.User;
+import com.games.repository.EmojiScoreRow;
+import com.games.repository.UserIdentity;
 import com.games.repository.UserRepository;
+import com.games.service.BulkScoreResult;
 import com.games.service.EmojiScoreService;
+import com.games.service.EncodedResponse;
+import com.games.service.EncodedResponseCache;
+import com.games.service.GameType;
+import com.games.service.LeaderboardBroadcaster;
+import com.games.service.LeaderboardCursor;
+import com.games.service.LeaderboardWindow;
+import com.games.service.LeaderboardPage;
+import com.games.service.LeaderboardRows;
+import com.games.service.ScoreIngestion;
+import com.games.service.ScoreCommitPendingException;
+import com.games.service.ScoreRank;
+import com.games.service.ScoreSubmission;
+import com.games.service.SessionUser;
+import com.games.service.UserDirectory;
+import com.games.service.UserScoreStats;
+import com.games.service.UserStatsAccumulator;
+import com.games.service.UserStatsDelta;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @RestController
@@ -28,9 +57,29 @@ public class EmojiScoreController {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private EncodedResponseCache encodedResponseCache;
+    
+    @Autowired
+    private LeaderboardBroadcaster leaderboardBroadcaster;
+    
+    @Autowired
+    private ScoreIngestion scoreIngestion;
+    
+    @Autowired
+    private UserStatsAccumulator userStatsAccumulator;
+    
+    @Autowired
+    private UserDirectory userDirectory;
+    
     // 🟢 SUBMIT SCORE - FIXED VERSION (uses JSON body instead of @RequestParam)
     @PostMapping("/submit-score")
-    public ResponseEntity<?> submitScore(@RequestBody ScoreRequest scoreRequest, HttpSession session) {
+    public ResponseEntity<?> submitScore(@RequestBody ScoreRequest scoreRequest,
+                                         @RequestParam(defaultValue = "sync") String ack,
+                                         SessionUser user) {
         
         System.out.println("🎯 Received score submission:");
         System.out.println("   Score: " + scoreRequest.getScore());
@@ -39,25 +88,28 @@ public class EmojiScoreController {
         System.out.println("   Correct: " + scoreRequest.getCorrectAnswers() + "/" + scoreRequest.getTotalQuestions());
         
         // Check if user is logged in
-        Object userObj = session.getAttribute("loggedInUser");
-        if (userObj == null) {
+        if (user == null) {
             System.out.println("❌ User not logged in session");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(createErrorResponse("User not logged in"));
         }
         
         try {
-            User user = (User) userObj;
             System.out.println("👤 Saving score for user: " + user.getUsername() + " (ID: " + user.getId() + ")");
             
-            EmojiScore savedScore = emojiScoreService.saveScore(
+            CompletableFuture<EmojiScore> pending = scoreIngestion.submitEmoji(new ScoreSubmission(
                 user.getId(), 
                 scoreRequest.getScore(), 
                 scoreRequest.getLevel(), 
                 scoreRequest.getTimeTaken(), 
                 scoreRequest.getCorrectAnswers(), 
-                scoreRequest.getTotalQuestions()
-            );
+                scoreRequest.getTotalQuestions(),
+                scoreRequest.getIdempotencyKey()
+            ));
+            if (ScoreIngestion.isAsync(ack)) {
+                return ResponseEntity.accepted().body(createQueuedResponse(user.getUsername()));
+            }
+            EmojiScore savedScore = scoreIngestion.awaitCommit(pending);
             
             System.out.println("✅ Score saved successfully with ID: " + savedScore.getId());
             
@@ -69,6 +121,14 @@ public class EmojiScoreController {
             
             return ResponseEntity.ok(response);
             
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(createErrorResponse(e.getMessage()));
+        } catch (ScoreCommitPendingException e) {
+            return ResponseEntity.accepted().body(createPendingResponse(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(createErrorResponse(e.getMessage()));
         } catch (Exception e) {
             System.out.println("❌ Error saving score: " + e.getMessage());
             e.printStackTrace();
@@ -77,25 +137,48 @@ public class EmojiScoreController {
         }
     }
     
+    // 🟢 BULK SUBMIT - rounds played offline, as a JSON array or NDJSON (one round per line).
+    // Read incrementally and saved in chunked transactions, one stats update per chunk.
+    @PostMapping(value = "/submit-scores/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson" })
+    public ResponseEntity<?> submitScoresBulk(HttpServletRequest request, SessionUser user) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(createErrorResponse("User not logged in"));
+        }
+        
+        Long userId = user.getId();
+        try (MappingIterator<ScoreRequest> rounds = objectMapper.readerFor(ScoreRequest.class)
+                .readValues(request.getInputStream())) {
+            BulkScoreResult result = scoreIngestion.saveBulk(GameType.EMOJI, rounds, round -> new ScoreSubmission(
+                userId,
+                round.getScore(),
+                round.getLevel(),
+                round.getTimeTaken(),
+                round.getCorrectAnswers(),
+                round.getTotalQuestions(),
+                round.getIdempotencyKey()
+            ));
+            
+            System.out.println("📦 Bulk upload for user " + userId + ": " + result.getSaved() + " saved, " + result.getFailed() + " failed");
+            return result.isComplete() ? ResponseEntity.ok(result) : ResponseEntity.badRequest().body(result);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest()
+                    .body(createErrorResponse("Unreadable upload: " + e.getMessage()));
+        }
+    }
+    
     // 🔵 GET USER SCORES - FIXED
     @GetMapping("/my-scores")
-    public ResponseEntity<?> getUserScores(HttpSession session) {
-        Object userObj = session.getAttribute("loggedInUser");
-        if (userObj == null) {
+    public ResponseEntity<?> getUserScores(SessionUser user) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(createErrorResponse("User not logged in"));
         }
         
         try {
-            User user = (User) userObj; // ✅ Fixed package reference
-            List<EmojiScore> scores = emojiScoreService.getUserScores(user.getId());
-            
-            // Convert to response DTO to avoid lazy loading issues
-            List<Map<String, Object>> scoreResponses = scores.stream()
-                .map(this::convertToScoreResponse)
-                .collect(Collectors.toList());
-            
-            return ResponseEntity.ok(scoreResponses);
+            // Projected rows, serialized directly
+            List<EmojiScoreRow> scores = emojiScoreService.getUserScores(user.getId());
+            return ResponseEntity.ok(scores);
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -105,58 +188,131 @@ public class EmojiScoreController {
     
     // 🟡 GET LEADERBOARD - FIXED
     @GetMapping("/leaderboard")
-public ResponseEntity<?> getLeaderboard() {
+public ResponseEntity<?> getLeaderboard(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
     try {
-        List<EmojiScore> leaderboard = emojiScoreService.getGlobalLeaderboard();
-        
-        // Convert to response DTO with email
-        List<Map<String, Object>> leaderboardResponse = leaderboard.stream()
-            .map(score -> {
-                Map<String, Object> response = new HashMap<>();
-                response.put("id", score.getId());
-                response.put("score", score.getScore());
-                response.put("level", score.getLevel());
-                response.put("timeTaken", score.getTimeTaken());
-                response.put("correctAnswers", score.getCorrectAnswers());
-                response.put("totalQuestions", score.getTotalQuestions());
-                response.put("playedAt", score.getPlayedAt());
-                response.put("username", score.getUser().getUsername());
-                response.put("userEmail", score.getUser().getEmail()); // Add email for highlighting
-                return response;
-            })
-            .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(leaderboardResponse);
+        // Encoded once per board change; unchanged boards are answered with 304
+        EncodedResponse leaderboard = encodedResponseCache.get("emoji-leaderboard",
+            emojiScoreService.getGlobalLeaderboardVersion(),
+            () -> emojiScoreService.getGlobalLeaderboard().stream()
+                .map(this::convertToLeaderboardResponse)
+                .collect(Collectors.toList()));
+        
+        if (leaderboard.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(leaderboard.getETag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(leaderboard.getETag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(leaderboard.getBody());
     } catch (Exception e) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(createErrorResponse("Error retrieving leaderboard: " + e.getMessage()));
     }
 }
     
+    // 🟡 LIVE LEADERBOARD - SSE: one "snapshot" event, then a "diff" whenever the top 10 changes
+    @GetMapping(value = "/leaderboard/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter liveLeaderboard() {
+        return leaderboardBroadcaster.subscribe(GameType.EMOJI);
+    }
+    
+    // 🟡 GET DAILY / WEEKLY / MONTHLY LEADERBOARD
+    @GetMapping("/leaderboard/{window:daily|weekly|monthly}")
+    public ResponseEntity<?> getWindowLeaderboard(@PathVariable String window) {
+        try {
+            List<EmojiScore> leaderboard = emojiScoreService.getWindowLeaderboard(LeaderboardWindow.fromPath(window));
+            List<Map<String, Object>> leaderboardResponse = leaderboard.stream()
+                .map(this::convertToLeaderboardResponse)
+                .collect(Collectors.toList());
+            return ResponseEntity.ok(leaderboardResponse);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error retrieving leaderboard: " + e.getMessage()));
+        }
+    }
+    
+    // 🟡 GET LEVEL LEADERBOARD
+    @GetMapping("/leaderboard/level/{level}")
+    public ResponseEntity<?> getLevelLeaderboard(@PathVariable int level) {
+        try {
+            List<EmojiScore> leaderboard = emojiScoreService.getLevelLeaderboard(level);
+            List<Map<String, Object>> leaderboardResponse = leaderboard.stream()
+                .map(this::convertToLeaderboardResponse)
+                .collect(Collectors.toList());
+            return ResponseEntity.ok(leaderboardResponse);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error retrieving level leaderboard: " + e.getMessage()));
+        }
+    }
+    
+    // 🟡 GET FULL LEADERBOARD - one keyset page per call, follow nextPageToken for more
+    @GetMapping("/leaderboard/full")
+    public ResponseEntity<?> getFullLeaderboard(@RequestParam(required = false) String pageToken,
+                                                @RequestParam(required = false) Integer size) {
+        try {
+            LeaderboardPage<EmojiScore> page = emojiScoreService.getFullLeaderboard(
+                pageToken, LeaderboardCursor.clampPageSize(size));
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("items", page.getItems().stream()
+                .map(this::convertToLeaderboardResponse)
+                .collect(Collectors.toList()));
+            response.put("nextPageToken", page.getNextPageToken());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error retrieving leaderboard: " + e.getMessage()));
+        }
+    }
+    
+    // 🟡 STREAM FULL LEADERBOARD - NDJSON, one row per line, written page by page
+    @GetMapping(value = "/leaderboard/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamFullLeaderboard() {
+        StreamingResponseBody body = out -> {
+            String pageToken = null;
+            do {
+                LeaderboardPage<EmojiScore> page = emojiScoreService.getFullLeaderboard(
+                    pageToken, LeaderboardCursor.MAX_PAGE_SIZE);
+                for (EmojiScore score : page.getItems()) {
+                    out.write(objectMapper.writeValueAsBytes(convertToLeaderboardResponse(score)));
+                    out.write('\n');
+                }
+                out.flush();
+                pageToken = page.getNextPageToken();
+            } while (pageToken != null);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+    
     // 🟣 GET USER STATS - FIXED
     @GetMapping("/my-stats")
-    public ResponseEntity<?> getUserStats(HttpSession session) {
-        Object userObj = session.getAttribute("loggedInUser");
-        if (userObj == null) {
+    public ResponseEntity<?> getUserStats(SessionUser user) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(createErrorResponse("User not logged in"));
         }
         
         try {
-            User user = (User) userObj; // ✅ Fixed package reference
             Long userId = user.getId();
             
-            Map<String, Object> stats = new HashMap<>();
-            stats.put("gamesPlayed", emojiScoreService.getUserGamesPlayed(userId));
-            
-            Optional<Integer> highScore = emojiScoreService.getUserHighScore(userId);
-            stats.put("highScore", highScore.orElse(0));
+            UserScoreStats userStats = emojiScoreService.getUserStats(userId);
             
-            Optional<Double> avgScore = emojiScoreService.getUserAverageScore(userId);
-            stats.put("averageScore", avgScore.orElse(0.0));
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("gamesPlayed", userStats.getGamesPlayed());
+            stats.put("highScore", userStats.getHighScore().orElse(0));
+            stats.put("averageScore", userStats.getAverageScore().orElse(0.0));
             
             // Add more stats
-            stats.put("totalScores", emojiScoreService.getUserScores(userId).size());
+            stats.put("totalScores", userStats.getGamesPlayed());
             
             return ResponseEntity.ok(stats);
             
@@ -166,11 +322,39 @@ public ResponseEntity<?> getLeaderboard() {
         }
     }
     
+    // 🏅 GET MY GLOBAL RANK
+    @GetMapping("/my-rank")
+    public ResponseEntity<?> getUserRank(SessionUser user) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(createErrorResponse("User not logged in"));
+        }
+        
+        try {
+            Optional<ScoreRank> rank = emojiScoreService.getUserRank(user.getId());
+            if (rank.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(createErrorResponse("No scores recorded yet"));
+            }
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("username", user.getUsername());
+            response.put("bestScore", rank.get().getScore());
+            response.put("rank", rank.get().getRank());
+            response.put("totalScores", rank.get().getTotalScores());
+            response.put("percentile", rank.get().getPercentile());
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error retrieving rank: " + e.getMessage()));
+        }
+    }
+    
     // 🔴 DELETE SCORE - FIXED
     @DeleteMapping("/score/{scoreId}")
-    public ResponseEntity<?> deleteScore(@PathVariable Long scoreId, HttpSession session) {
-        Object userObj = session.getAttribute("loggedInUser");
-        if (userObj == null) {
+    public ResponseEntity<?> deleteScore(@PathVariable Long scoreId, SessionUser user) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(createErrorResponse("User not logged in"));
         }
@@ -191,23 +375,15 @@ public ResponseEntity<?> getLeaderboard() {
     
     // 🟠 GET LEVEL SCORES - FIXED
     @GetMapping("/level/{level}")
-    public ResponseEntity<?> getLevelScores(@PathVariable int level, HttpSession session) {
-        Object userObj = session.getAttribute("loggedInUser");
-        if (userObj == null) {
+    public ResponseEntity<?> getLevelScores(@PathVariable int level, SessionUser user) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(createErrorResponse("User not logged in"));
         }
         
         try {
-            User user = (User) userObj; // ✅ Fixed package reference
-            List<EmojiScore> scores = emojiScoreService.getUserScoresByLevel(user.getId(), level);
-            
-            // Convert to response DTO
-            List<Map<String, Object>> scoreResponses = scores.stream()
-                .map(this::convertToScoreResponse)
-                .collect(Collectors.toList());
-            
-            return ResponseEntity.ok(scoreResponses);
+            List<EmojiScoreRow> scores = emojiScoreService.getUserScoresByLevel(user.getId(), level);
+            return ResponseEntity.ok(scores);
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -223,9 +399,16 @@ public ResponseEntity<?> getLeaderboard() {
         debugInfo.put("timestamp", LocalDateTime.now());
         debugInfo.put("endpoints", List.of(
             "POST /api/emoji/submit-score",
+            "POST /api/emoji/submit-scores/bulk",
             "GET /api/emoji/leaderboard", 
+            "GET /api/emoji/leaderboard/live",
+            "GET /api/emoji/leaderboard/{daily|weekly|monthly}",
+            "GET /api/emoji/leaderboard/level/{level}",
+            "GET /api/emoji/leaderboard/full",
+            "GET /api/emoji/leaderboard/stream",
             "GET /api/emoji/my-scores",
             "GET /api/emoji/my-stats",
+            "GET /api/emoji/my-rank",
             "GET /api/emoji/game-stats",
             "GET /api/emoji/debug"
         ));
@@ -234,15 +417,13 @@ public ResponseEntity<?> getLeaderboard() {
     
     // 🎮 GET USER GAME STATS - FIXED (moved from UserController)
     @GetMapping("/game-stats")
-    public ResponseEntity<?> getUserGameStats(HttpSession session) {
-        Object userObj = session.getAttribute("loggedInUser");
-        if (userObj == null) {
+    public ResponseEntity<?> getUserGameStats(SessionUser sessionUser) {
+        if (sessionUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(createErrorResponse("User not logged in"));
         }
         
         try {
-            User sessionUser = (User) userObj;
             // Refresh user data from database
             Optional<User> currentUser = userRepository.findById(sessionUser.getId());
             if (currentUser.isEmpty()) {
@@ -251,18 +432,20 @@ public ResponseEntity<?> getLeaderboard() {
             }
             
             User freshUser = currentUser.get();
+            // Rounds not yet flushed to the users row
+            UserStatsDelta pending = userStatsAccumulator.pending(freshUser.getId());
             
             Map<String, Object> stats = new HashMap<>();
             stats.put("username", freshUser.getUsername());
             stats.put("level", freshUser.getLevel());
-            stats.put("totalScore", freshUser.getScore());
-            stats.put("highestScore", freshUser.getHighestScore());
-            stats.put("averageScore", freshUser.getAverageScore());
-            stats.put("gamesPlayed", freshUser.getGamesPlayed());
-            stats.put("totalCorrectAnswers", freshUser.getTotalCorrectAnswers());
-            stats.put("totalTimePlayed", freshUser.getTotalTimePlayed());
-            stats.put("accuracy", freshUser.getAccuracy());
-            stats.put("averageTimePerGame", freshUser.getAverageTimePerGame());
+            stats.put("totalScore", pending.totalScore(freshUser));
+            stats.put("highestScore", pending.highestScore(freshUser));
+            stats.put("averageScore", pending.averageScore(freshUser));
+            stats.put("gamesPlayed", pending.gamesPlayed(freshUser));
+            stats.put("totalCorrectAnswers", pending.totalCorrectAnswers(freshUser));
+            stats.put("totalTimePlayed", pending.totalTimePlayed(freshUser));
+            stats.put("accuracy", pending.accuracy(freshUser));
+            stats.put("averageTimePerGame", pending.averageTimePerGame(freshUser));
             stats.put("lastPlayed", freshUser.getLastPlayed());
             
             return ResponseEntity.ok(stats);
@@ -281,9 +464,8 @@ public ResponseEntity<?> getLeaderboard() {
         sessionInfo.put("creationTime", new Date(session.getCreationTime()));
         sessionInfo.put("lastAccessedTime", new Date(session.getLastAccessedTime()));
         
-        Object userObj = session.getAttribute("loggedInUser");
-        if (userObj != null) {
-            User user = (User) userObj;
+        Object userObj = session.getAttribute(SessionUser.SESSION_ATTRIBUTE);
+        if (userObj instanceof SessionUser user) {
             sessionInfo.put("loggedInUser", user.getUsername());
             sessionInfo.put("userId", user.getId());
             sessionInfo.put("status", "LOGGED_IN");
@@ -299,7 +481,8 @@ public ResponseEntity<?> getLeaderboard() {
  // 🟢 SUBMIT SCORE BY EMAIL - No session required
     // 🟢 SUBMIT SCORE BY EMAIL - With proper null handling
 @PostMapping("/submit-score-by-email")
-public ResponseEntity<?> submitScoreByEmail(@RequestBody EmailScoreRequest scoreRequest) {
+public ResponseEntity<?> submitScoreByEmail(@RequestBody EmailScoreRequest scoreRequest,
+                                            @RequestParam(defaultValue = "sync") String ack) {
     
     System.out.println("🎯 Received score submission by email:");
     System.out.println("   Email: " + scoreRequest.getEmail());
@@ -316,28 +499,30 @@ public ResponseEntity<?> submitScoreByEmail(@RequestBody EmailScoreRequest score
         }
         
         // Find user by email
-        Optional<User> userOptional = userRepository.findByEmail(scoreRequest.getEmail().trim());
+        Optional<UserIdentity> userOptional = userDirectory.findByEmail(scoreRequest.getEmail());
         if (userOptional.isEmpty()) {
             System.out.println("❌ User not found with email: " + scoreRequest.getEmail());
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(createErrorResponse("User not found with email: " + scoreRequest.getEmail()));
         }
         
-        User user = userOptional.get();
+        UserIdentity user = userOptional.get();
         System.out.println("👤 Saving score for user: " + user.getUsername() + " (ID: " + user.getId() + ")");
         
-        // Update user stats before saving score
-        updateUserStats(user, scoreRequest);
-        
-        // Save the score
-        EmojiScore savedScore = emojiScoreService.saveScore(
+        // Save the score; user stats are updated in the same transaction
+        CompletableFuture<EmojiScore> pending = scoreIngestion.submitEmoji(new ScoreSubmission(
             user.getId(), 
             scoreRequest.getScore(), 
             scoreRequest.getLevel(), 
             scoreRequest.getTimeTaken(), 
             scoreRequest.getCorrectAnswers(), 
-            scoreRequest.getTotalQuestions()
-        );
+            scoreRequest.getTotalQuestions(),
+            scoreRequest.getIdempotencyKey()
+        ));
+        if (ScoreIngestion.isAsync(ack)) {
+            return ResponseEntity.accepted().body(createQueuedResponse(user.getUsername()));
+        }
+        EmojiScore savedScore = scoreIngestion.awaitCommit(pending);
         
         System.out.println("✅ Score saved successfully with ID: " + savedScore.getId());
         
@@ -349,6 +534,14 @@ public ResponseEntity<?> submitScoreByEmail(@RequestBody EmailScoreRequest score
         
         return ResponseEntity.ok(response);
         
+    } catch (IllegalArgumentException e) {
+        return ResponseEntity.badRequest()
+                .body(createErrorResponse(e.getMessage()));
+    } catch (ScoreCommitPendingException e) {
+        return ResponseEntity.accepted().body(createPendingResponse(e.getMessage()));
+    } catch (IllegalStateException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(createErrorResponse(e.getMessage()));
     } catch (Exception e) {
         System.out.println("❌ Error saving score: " + e.getMessage());
         e.printStackTrace();
@@ -357,65 +550,10 @@ public ResponseEntity<?> submitScoreByEmail(@RequestBody EmailScoreRequest score
     }
 }
 
-// Helper method to update user statistics
-private void updateUserStats(User user, EmailScoreRequest scoreRequest) {
-    try {
-        // Initialize fields if they are null
-        if (user.getGamesPlayed() == null) user.setGamesPlayed(0);
-        if (user.getScore() == null) user.setScore(0);
-        if (user.getHighestScore() == null) user.setHighestScore(0);
-        if (user.getTotalCorrectAnswers() == null) user.setTotalCorrectAnswers(0);
-        if (user.getTotalTimePlayed() == null) user.setTotalTimePlayed(0);
-        
-        // Update user statistics
-        user.setGamesPlayed(user.getGamesPlayed() + 1);
-        user.setScore(user.getScore() + scoreRequest.getScore());
-        
-        // Update highest score if current score is higher
-        if (scoreRequest.getScore() > user.getHighestScore()) {
-            user.setHighestScore(scoreRequest.getScore());
-        }
-        
-        // Update total correct answers and time played
-        user.setTotalCorrectAnswers(user.getTotalCorrectAnswers() + scoreRequest.getCorrectAnswers());
-        user.setTotalTimePlayed(user.getTotalTimePlayed() + scoreRequest.getTimeTaken());
-        
-        // Calculate average score
-        if (user.getGamesPlayed() > 0) {
-            user.setAverageScore((double) user.getScore() / user.getGamesPlayed());
-        }
-        
-        // Calculate accuracy (percentage of correct answers)
-        int totalQuestionsAttempted = user.getGamesPlayed() * scoreRequest.getTotalQuestions(); // Approximate
-        if (totalQuestionsAttempted > 0) {
-            user.setAccuracy((double) user.getTotalCorrectAnswers() / totalQuestionsAttempted * 100);
-        }
-        
-        // Calculate average time per game
-        if (user.getGamesPlayed() > 0) {
-            user.setAverageTimePerGame((double) user.getTotalTimePlayed() / user.getGamesPlayed());
-        }
-        
-        // Update last played timestamp
-        user.setLastPlayed(LocalDateTime.now());
-        
-        // Save updated user
-        userRepository.save(user);
-        
-        System.out.println("📊 Updated user stats:");
-        System.out.println("   Games Played: " + user.getGamesPlayed());
-        System.out.println("   Total Score: " + user.getScore());
-        System.out.println("   Highest Score: " + user.getHighestScore());
-        
-    } catch (Exception e) {
-        System.out.println("⚠️ Error updating user stats: " + e.getMessage());
-        // Don't throw exception - we still want to save the score
-    }
-}
-
 // 🟢 SIMPLIFIED VERSION - If you're still having issues, use this:
 @PostMapping("/submit-score-by-email-simple")
-public ResponseEntity<?> submitScoreByEmailSimple(@RequestBody EmailScoreRequest scoreRequest) {
+public ResponseEntity<?> submitScoreByEmailSimple(@RequestBody EmailScoreRequest scoreRequest,
+                                                  @RequestParam(defaultValue = "sync") String ack) {
     
     System.out.println("🎯 SIMPLE VERSION: Received score submission by email:");
     System.out.println("   Email: " + scoreRequest.getEmail());
@@ -429,26 +567,28 @@ public ResponseEntity<?> submitScoreByEmailSimple(@RequestBody EmailScoreRequest
         }
         
         // Find user by email
-        Optional<User> userOptional = userRepository.findByEmail(scoreRequest.getEmail().trim());
+        Optional<UserIdentity> userOptional = userDirectory.findByEmail(scoreRequest.getEmail());
         if (userOptional.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(createErrorResponse("User not found with email: " + scoreRequest.getEmail()));
         }
         
-        User user = userOptional.get();
-        
-        // SIMPLE FIX: Ensure all fields have values
-        initializeUserFields(user);
+        UserIdentity user = userOptional.get();
         
-        // Save the score without updating user stats
-        EmojiScore savedScore = emojiScoreService.saveScore(
+        // Save the score; user stats are updated in the same transaction
+        CompletableFuture<EmojiScore> pending = scoreIngestion.submitEmoji(new ScoreSubmission(
             user.getId(), 
             scoreRequest.getScore(), 
             scoreRequest.getLevel(), 
             scoreRequest.getTimeTaken(), 
             scoreRequest.getCorrectAnswers(), 
-            scoreRequest.getTotalQuestions()
-        );
+            scoreRequest.getTotalQuestions(),
+            scoreRequest.getIdempotencyKey()
+        ));
+        if (ScoreIngestion.isAsync(ack)) {
+            return ResponseEntity.accepted().body(createQueuedResponse(user.getUsername()));
+        }
+        EmojiScore savedScore = scoreIngestion.awaitCommit(pending);
         
         System.out.println("✅ Score saved successfully with ID: " + savedScore.getId());
         
@@ -460,6 +600,14 @@ public ResponseEntity<?> submitScoreByEmailSimple(@RequestBody EmailScoreRequest
         
         return ResponseEntity.ok(response);
         
+    } catch (IllegalArgumentException e) {
+        return ResponseEntity.badRequest()
+                .body(createErrorResponse(e.getMessage()));
+    } catch (ScoreCommitPendingException e) {
+        return ResponseEntity.accepted().body(createPendingResponse(e.getMessage()));
+    } catch (IllegalStateException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(createErrorResponse(e.getMessage()));
     } catch (Exception e) {
         System.out.println("❌ Error saving score: " + e.getMessage());
         e.printStackTrace();
@@ -468,42 +616,20 @@ public ResponseEntity<?> submitScoreByEmailSimple(@RequestBody EmailScoreRequest
     }
 }
 
-// Helper method to initialize all user fields
-private void initializeUserFields(User user) {
-    if (user.getLevel() == null) user.setLevel(1);
-    if (user.getScore() == null) user.setScore(0);
-    if (user.getGamesPlayed() == null) user.setGamesPlayed(0);
-    if (user.getHighestScore() == null) user.setHighestScore(0);
-    if (user.getAverageScore() == null) user.setAverageScore(0.0);
-    if (user.getTotalCorrectAnswers() == null) user.setTotalCorrectAnswers(0);
-    if (user.getTotalTimePlayed() == null) user.setTotalTimePlayed(0);
-    if (user.getAccuracy() == null) user.setAccuracy(0.0);
-    if (user.getAverageTimePerGame() == null) user.setAverageTimePerGame(0.0);
-    
-    // Save the initialized user
-    userRepository.save(user);
-}
-
     // 🟢 GET USER SCORES BY EMAIL - No session required
     @GetMapping("/scores-by-email")
     public ResponseEntity<?> getUserScoresByEmail(@RequestParam String email) {
         try {
             // Find user by email
-            Optional<User> userOptional = userRepository.findByEmail(email);
+            Optional<UserIdentity> userOptional = userDirectory.findByEmail(email);
             if (userOptional.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(createErrorResponse("User not found with email: " + email));
             }
             
-            User user = userOptional.get();
-            List<EmojiScore> scores = emojiScoreService.getUserScores(user.getId());
-            
-            // Convert to response DTO
-            List<Map<String, Object>> scoreResponses = scores.stream()
-                .map(this::convertToScoreResponse)
-                .collect(Collectors.toList());
-            
-            return ResponseEntity.ok(scoreResponses);
+            UserIdentity user = userOptional.get();
+            List<EmojiScoreRow> scores = emojiScoreService.getUserScores(user.getId());
+            return ResponseEntity.ok(scores);
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -520,6 +646,24 @@ private void initializeUserFields(User user) {
         return response;
     }
     
+    // Fire-and-forget ack: the score is queued, its id isn't known yet
+    private Map<String, Object> createQueuedResponse(String username) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "accepted");
+        response.put("message", "Score queued");
+        response.put("username", username);
+        return response;
+    }
+    
+    // Sync ack that timed out: the round is still with the writer and may yet be saved
+    private Map<String, Object> createPendingResponse(String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "pending");
+        response.put("message", message);
+        response.put("timestamp", LocalDateTime.now());
+        return response;
+    }
+    
     private Map<String, Object> createErrorResponse(String error) {
         Map<String, Object> response = new HashMap<>();
         response.put("status", "error");
@@ -528,31 +672,23 @@ private void initializeUserFields(User user) {
         return response;
     }
     
-    private Map<String, Object> convertToScoreResponse(EmojiScore score) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("id", score.getId());
-        response.put("score", score.getScore());
-        response.put("level", score.getLevel());
-        response.put("timeTaken", score.getTimeTaken());
-        response.put("correctAnswers", score.getCorrectAnswers());
-        response.put("totalQuestions", score.getTotalQuestions());
-        response.put("playedAt", score.getPlayedAt());
-        response.put("accuracy", score.getTotalQuestions() > 0 ? 
-            (double) score.getCorrectAnswers() / score.getTotalQuestions() * 100 : 0.0);
-        return response;
+    // Same row shape the live channel pushes
+    private Map<String, Object> convertToLeaderboardResponse(EmojiScore score) {
+        return LeaderboardRows.emoji(score);
     }
     
     private Map<String, Object> getUserGameStats(Long userId) {
         Optional<User> user = userRepository.findById(userId);
         if (user.isPresent()) {
             User u = user.get();
+            UserStatsDelta pending = userStatsAccumulator.pending(u.getId());
             Map<String, Object> stats = new HashMap<>();
             stats.put("level", u.getLevel());
-            stats.put("totalScore", u.getScore());
-            stats.put("gamesPlayed", u.getGamesPlayed());
-            stats.put("highestScore", u.getHighestScore());
-            stats.put("averageScore", u.getAverageScore());
-            stats.put("accuracy", u.getAccuracy());
+            stats.put("totalScore", pending.totalScore(u));
+            stats.put("gamesPlayed", pending.gamesPlayed(u));
+            stats.put("highestScore", pending.highestScore(u));
+            stats.put("averageScore", pending.averageScore(u));
+            stats.put("accuracy", pending.accuracy(u));
             return stats;
         }
         return new HashMap<>();
@@ -565,6 +701,7 @@ private void initializeUserFields(User user) {
         private int timeTaken;
         private int correctAnswers;
         private int totalQuestions;
+        private String idempotencyKey;
         
         // Getters and Setters
         public String getEmail() { return email; }
@@ -584,6 +721,10 @@ private void initializeUserFields(User user) {
         
         public int getTotalQuestions() { return totalQuestions; }
         public void setTotalQuestions(int totalQuestions) { this.totalQuestions = totalQuestions; }
+        
+        // Optional; the same key on a retry returns the original saved score
+        public String getIdempotencyKey() { return idempotencyKey; }
+        public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
     }
     
     // 🟢 REQUEST DTO CLASSES
@@ -593,6 +734,7 @@ private void initializeUserFields(User user) {
         private int timeTaken;
         private int correctAnswers;
         private int totalQuestions;
+        private String idempotencyKey;
         
         // Getters and Setters
         public int getScore() { return score; }
@@ -609,5 +751,9 @@ private void initializeUserFields(User user) {
         
         public int getTotalQuestions() { return totalQuestions; }
         public void setTotalQuestions(int totalQuestions) { this.totalQuestions = totalQuestions; }
+        
+        // Optional; the same key on a retry returns the original saved score
+        public String getIdempotencyKey() { return idempotencyKey; }
+        public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
     }
 }
\ No newline at end of file
@@ -2,23 +2,47 @@ package com.games.repository;
 
 import com.games.model.EmojiScore;
 import com.games.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface EmojiScoreRepository extends JpaRepository<EmojiScore, Long> {
     
-    // Find scores by user, ordered by score descending
-    List<EmojiScore> findByUserOrderByScoreDesc(User user);
+    // A user's scores, best first, as response rows
+    @Query("SELECT new com.games.repository.EmojiScoreRow(es.id, es.score, es.level, es.timeTaken, " +
+           "es.correctAnswers, es.totalQuestions, es.playedAt) " +
+           "FROM EmojiScore es WHERE es.user.id = :userId ORDER BY es.score DESC")
+    List<EmojiScoreRow> findRowsByUserId(@Param("userId") Long userId);
     
     // Find top scores globally
+    @EntityGraph(attributePaths = "user")
     List<EmojiScore> findTop10ByOrderByScoreDesc();
     
+    // Leaderboard index backfill, same order as the in-memory boards
+    @EntityGraph(attributePaths = "user")
+    List<EmojiScore> findByOrderByScoreDescTimeTakenAscIdAsc(Pageable pageable);
+    
+    // Per-level leaderboard backfill
+    @EntityGraph(attributePaths = "user")
+    List<EmojiScore> findByLevelOrderByScoreDescTimeTakenAscIdAsc(int level, Pageable pageable);
+    
+    // Levels that have at least one score
+    @Query("SELECT DISTINCT es.level FROM EmojiScore es")
+    List<Integer> findDistinctLevels();
+    
+    // Best scores played in [from, to), used to fill the daily leaderboard buckets
+    @EntityGraph(attributePaths = "user")
+    List<EmojiScore> findByPlayedAtGreaterThanEqualAndPlayedAtLessThanOrderByScoreDescTimeTakenAscIdAsc(
+        LocalDateTime from, LocalDateTime to, Pageable pageable);
+    
     // Find user's highest score
     @Query("SELECT MAX(es.score) FROM EmojiScore es WHERE es.user = :user")
     Optional<Integer> findHighestScoreByUser(@Param("user") User user);
@@ -27,13 +51,40 @@ public interface EmojiScoreRepository extends JpaRepository<EmojiScore, Long> {
     @Query("SELECT AVG(es.score) FROM EmojiScore es WHERE es.user = :user")
     Optional<Double> findAverageScoreByUser(@Param("user") User user);
     
+    // Count, total and best score of a user in one pass
+    @Query("SELECT COUNT(es) AS games, SUM(es.score) AS total, MAX(es.score) AS best " +
+           "FROM EmojiScore es WHERE es.user.id = :userId")
+    ScoreAggregate aggregateByUserId(@Param("userId") Long userId);
+    
     // Count games played by user
     long countByUser(User user);
     
-    // Find scores by level
-    List<EmojiScore> findByUserAndLevelOrderByScoreDesc(User user, int level);
+    // Score a client already submitted under this dedup key
+    Optional<EmojiScore> findByUser_IdAndIdempotencyKey(Long userId, String idempotencyKey);
+    
+    // Score histogram (score, count) used to seed the rank index
+    @Query("SELECT es.score, COUNT(es) FROM EmojiScore es GROUP BY es.score")
+    List<Object[]> countScoresByValue();
+    
+    // A user's scores on one level, best first
+    @Query("SELECT new com.games.repository.EmojiScoreRow(es.id, es.score, es.level, es.timeTaken, " +
+           "es.correctAnswers, es.totalQuestions, es.playedAt) " +
+           "FROM EmojiScore es WHERE es.user.id = :userId AND es.level = :level ORDER BY es.score DESC")
+    List<EmojiScoreRow> findRowsByUserIdAndLevel(@Param("userId") Long userId, @Param("level") int level);
+    
+    // Full leaderboard, first keyset page
+    @Query("SELECT es FROM EmojiScore es JOIN FETCH es.user u " +
+           "ORDER BY es.score DESC, es.timeTaken ASC, es.id ASC")
+    List<EmojiScore> findLeaderboardFirstPage(Pageable pageable);
     
-    // Get leaderboard with user details
-    @Query("SELECT es FROM EmojiScore es JOIN FETCH es.user u ORDER BY es.score DESC")
-    List<EmojiScore> findLeaderboard();
+    // Full leaderboard, every row ranked after the cursor (score DESC, timeTaken ASC, id ASC)
+    @Query("SELECT es FROM EmojiScore es JOIN FETCH es.user u " +
+           "WHERE es.score < :score " +
+           "OR (es.score = :score AND (es.timeTaken > :timeTaken " +
+           "OR (es.timeTaken = :timeTaken AND es.id > :id))) " +
+           "ORDER BY es.score DESC, es.timeTaken ASC, es.id ASC")
+    List<EmojiScore> findLeaderboardAfter(@Param("score") int score,
+                                          @Param("timeTaken") int timeTaken,
+                                          @Param("id") long id,
+                                          Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.games.repository;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+
+// One emoji round as the score list endpoints return it, selected column by column
+// (no User join, no managed entity) and serialized as is
+public record EmojiScoreRow(Long id, int score, int level, int timeTaken,
+                            int correctAnswers, int totalQuestions, LocalDateTime playedAt) {
+
+    @JsonProperty("accuracy")
+    public double accuracy() {
+        return totalQuestions > 0 ? (double) correctAnswers / totalQuestions * 100 : 0.0;
+    }
+}
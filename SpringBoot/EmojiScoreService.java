@@ -3,13 +3,20 @@ package com.games.service;
 import com.games.model.EmojiScore;
 import com.games.model.User;
 import com.games.repository.EmojiScoreRepository;
+import com.games.repository.EmojiScoreRow;
 import com.games.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 @Service
 public class EmojiScoreService {
@@ -19,95 +26,166 @@ public class EmojiScoreService {
     
     @Autowired
     private UserRepository userRepository;
+
+    @Autowired
+    private UserEntityCache userEntityCache;
+    
+    @Autowired
+    private LeaderboardIndex leaderboardIndex;
+    
+    @Autowired
+    private WindowedLeaderboardIndex windowedLeaderboardIndex;
+    
+    @Autowired
+    private LevelLeaderboardIndex levelLeaderboardIndex;
+    
+    @Autowired
+    private ScoreRankService scoreRankService;
+    
+    @Autowired
+    private UserStatsCache userStatsCache;
+    
+    @Autowired
+    private UserStatsAccumulator userStatsAccumulator;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
     
     @Transactional
     public EmojiScore saveScore(Long userId, int score, int level, int timeTaken, 
                                int correctAnswers, int totalQuestions) {
-        Optional<User> userOpt = userRepository.findById(userId);
-        if (userOpt.isEmpty()) {
-            throw new RuntimeException("User not found with ID: " + userId);
+        return saveScores(List.of(new ScoreSubmission(
+            userId, score, level, timeTaken, correctAnswers, totalQuestions))).get(0);
+    }
+    
+    // Saves a run of rounds in one transaction: one atomic stats UPDATE per user (or none, when
+    // UserStatsAccumulator defers them), then the score inserts share a JDBC batch.
+    // Results come back in submission order.
+    @Transactional
+    public List<EmojiScore> saveScores(List<ScoreSubmission> submissions) {
+        // Sorted so concurrent runs lock user rows in the same order
+        Map<Long, UserStatsDelta> deltas = new TreeMap<>();
+        for (ScoreSubmission submission : submissions) {
+            deltas.computeIfAbsent(submission.getUserId(), id -> new UserStatsDelta()).add(submission);
+        }
+        if (!userStatsAccumulator.isDeferred()) {
+            for (Map.Entry<Long, UserStatsDelta> delta : deltas.entrySet()) {
+                if (!delta.getValue().applyTo(userRepository, userEntityCache, delta.getKey())) {
+                    throw new RuntimeException("User not found with ID: " + delta.getKey());
+                }
+            }
         }
         
-        User user = userOpt.get();
+        // Read back after the update so listeners see current stats
+        Map<Long, User> users = new HashMap<>();
+        for (User user : userRepository.findAllById(deltas.keySet())) {
+            users.put(user.getId(), user);
+        }
         
-        // Update user game statistics
-        user.updateGameStats(score, correctAnswers, timeTaken);
-        userRepository.save(user);
+        List<EmojiScore> scores = new ArrayList<>(submissions.size());
+        for (ScoreSubmission submission : submissions) {
+            User user = users.get(submission.getUserId());
+            if (user == null) {
+                throw new RuntimeException("User not found with ID: " + submission.getUserId());
+            }
+            
+            // Individual score record
+            EmojiScore score = new EmojiScore(user, submission.getScore(), submission.getLevel(), submission.getTimeTaken(),
+                submission.getCorrectAnswers(), submission.getTotalQuestions());
+            score.setIdempotencyKey(submission.getIdempotencyKey());
+            scores.add(score);
+        }
         
-        // Save individual score record
-        EmojiScore emojiScore = new EmojiScore(
-            user, score, level, timeTaken, correctAnswers, totalQuestions
-        );
+        List<EmojiScore> saved = emojiScoreRepository.saveAll(scores);
         
-        return emojiScoreRepository.save(emojiScore);
+        // Leaderboard read models pick these up once the transaction commits
+        for (EmojiScore score : saved) {
+            eventPublisher.publishEvent(new ScoreSavedEvent<>(score));
+        }
+        return saved;
     }
     
-    public List<EmojiScore> getUserScores(Long userId) {
-        Optional<User> user = userRepository.findById(userId);
-        if (user.isEmpty()) {
-            throw new RuntimeException("User not found with ID: " + userId);
-        }
-        return emojiScoreRepository.findByUserOrderByScoreDesc(user.get());
+    // The score a user already submitted under this dedup key, if any
+    public Optional<EmojiScore> findByIdempotencyKey(Long userId, String idempotencyKey) {
+        return emojiScoreRepository.findByUser_IdAndIdempotencyKey(userId, idempotencyKey);
+    }
+    
+    // Response rows straight from the query, no entities loaded
+    @Transactional(readOnly = true)
+    public List<EmojiScoreRow> getUserScores(Long userId) {
+        return emojiScoreRepository.findRowsByUserId(userId);
     }
     
     public List<EmojiScore> getGlobalLeaderboard() {
-        return emojiScoreRepository.findTop10ByOrderByScoreDesc();
+        return leaderboardIndex.emojiTop();
+    }
+    
+    // Changes whenever getGlobalLeaderboard() may return something different
+    public long getGlobalLeaderboardVersion() {
+        return leaderboardIndex.emojiVersion();
+    }
+    
+    public List<EmojiScore> getWindowLeaderboard(LeaderboardWindow window) {
+        return windowedLeaderboardIndex.emojiTop(window);
+    }
+    
+    public List<EmojiScore> getLevelLeaderboard(int level) {
+        return levelLeaderboardIndex.emojiTop(level);
+    }
+    
+    // Count / high / average in one cached lookup, one aggregate query on a miss
+    public UserScoreStats getUserStats(Long userId) {
+        return userStatsCache.emoji(userId);
     }
     
-    // FIXED: Use repository methods that actually exist
     public Optional<Integer> getUserHighScore(Long userId) {
-        Optional<User> user = userRepository.findById(userId);
-        if (user.isEmpty()) {
-            return Optional.empty();
-        }
-        // Use the repository method that exists
-        List<EmojiScore> userScores = emojiScoreRepository.findByUserOrderByScoreDesc(user.get());
-        if (userScores.isEmpty()) {
-            return Optional.empty();
-        }
-        return Optional.of(userScores.get(0).getScore());
+        return getUserStats(userId).getHighScore();
     }
     
     public Optional<Double> getUserAverageScore(Long userId) {
-        Optional<User> user = userRepository.findById(userId);
-        if (user.isEmpty()) {
-            return Optional.empty();
-        }
-        List<EmojiScore> userScores = emojiScoreRepository.findByUserOrderByScoreDesc(user.get());
-        if (userScores.isEmpty()) {
-            return Optional.empty();
-        }
-        double average = userScores.stream()
-            .mapToInt(EmojiScore::getScore)
-            .average()
-            .orElse(0.0);
-        return Optional.of(average);
+        return getUserStats(userId).getAverageScore();
+    }
+    
+    // Global rank of the user's best score; empty if they haven't played yet
+    public Optional<ScoreRank> getUserRank(Long userId) {
+        return getUserHighScore(userId).map(scoreRankService::emojiRank);
     }
     
     public long getUserGamesPlayed(Long userId) {
-        Optional<User> user = userRepository.findById(userId);
-        if (user.isEmpty()) {
-            return 0L;
-        }
-        return emojiScoreRepository.countByUser(user.get());
+        return getUserStats(userId).getGamesPlayed();
     }
     
-    public List<EmojiScore> getUserScoresByLevel(Long userId, int level) {
-        Optional<User> user = userRepository.findById(userId);
-        if (user.isEmpty()) {
-            throw new RuntimeException("User not found with ID: " + userId);
-        }
-        return emojiScoreRepository.findByUserAndLevelOrderByScoreDesc(user.get(), level);
+    @Transactional(readOnly = true)
+    public List<EmojiScoreRow> getUserScoresByLevel(Long userId, int level) {
+        return emojiScoreRepository.findRowsByUserIdAndLevel(userId, level);
     }
     
-    // This method uses the custom query from repository
-    public List<EmojiScore> getFullLeaderboard() {
-        return emojiScoreRepository.findLeaderboard();
+    // Full leaderboard one keyset page at a time; pass null for the first page
+    @Transactional(readOnly = true)
+    public LeaderboardPage<EmojiScore> getFullLeaderboard(String pageToken, int pageSize) {
+        PageRequest page = PageRequest.of(0, pageSize);
+        List<EmojiScore> rows;
+        if (pageToken == null || pageToken.isBlank()) {
+            rows = emojiScoreRepository.findLeaderboardFirstPage(page);
+        } else {
+            LeaderboardCursor cursor = LeaderboardCursor.decode(pageToken);
+            rows = emojiScoreRepository.findLeaderboardAfter(
+                cursor.getScore(), cursor.getTimeTaken(), cursor.getId(), page);
+        }
+        
+        String nextPageToken = null;
+        if (rows.size() == pageSize) {
+            EmojiScore last = rows.get(rows.size() - 1);
+            nextPageToken = new LeaderboardCursor(last.getScore(), last.getTimeTaken(), last.getId()).encode();
+        }
+        return new LeaderboardPage<>(rows, nextPageToken);
     }
     
     public boolean deleteScore(Long scoreId) {
-        if (emojiScoreRepository.existsById(scoreId)) {
-            emojiScoreRepository.deleteById(scoreId);
+        Optional<EmojiScore> existing = emojiScoreRepository.findById(scoreId);
+        if (existing.isPresent()) {
+            emojiScoreRepository.delete(existing.get());
+            eventPublisher.publishEvent(new ScoreDeletedEvent<>(existing.get()));
             return true;
         }
         return false;
@@ -0,0 +1,36 @@
+package com.games.service;
+
+// A response body serialized once, together with the strong ETag of those exact bytes
+public class EncodedResponse {
+
+    private final long version;
+    private final byte[] body;
+    private final String eTag;
+
+    public EncodedResponse(long version, byte[] body, String eTag) {
+        this.version = version;
+        this.body = body;
+        this.eTag = eTag;
+    }
+
+    public long getVersion() { return version; }
+    public byte[] getBody() { return body; }
+    public String getETag() { return eTag; }
+
+    // If-None-Match may list several tags, may be "*", and proxies may have weakened ours
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,46 @@
+package com.games.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Keeps the last JSON encoding of each named board and re-encodes only when its version moves
+@Component
+public class EncodedResponseCache {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<String, EncodedResponse> encoded = new ConcurrentHashMap<>();
+
+    public EncodedResponse get(String key, long version, Supplier<Object> payload) {
+        EncodedResponse current = encoded.get(key);
+        if (current != null && current.getVersion() == version) {
+            return current;
+        }
+        // compute() serializes concurrent rebuilds of the same key
+        return encoded.compute(key, (k, existing) -> {
+            if (existing != null && existing.getVersion() == version) {
+                return existing;
+            }
+            byte[] body = encode(payload.get());
+            // Hash of the bytes rather than the version, so tags survive restarts
+            String eTag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+            return new EncodedResponse(version, body, eTag);
+        });
+    }
+
+    private byte[] encode(Object payload) {
+        try {
+            return objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode response: " + e.getMessage(), e);
+        }
+    }
+}
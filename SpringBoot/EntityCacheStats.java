@@ -0,0 +1,56 @@
+package com.games.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Hit/miss/put counters of the Hibernate caches (see JpaCacheConfig), overall and per region,
+// for sizing the regions. Empty counters unless statistics are enabled.
+@Component
+public class EntityCacheStats {
+
+    private static final List<String> REGIONS = List.of("users", "users-by-email");
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public Map<String, Object> snapshot() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        snapshot.put("secondLevel", counters(statistics.getSecondLevelCacheHitCount(),
+            statistics.getSecondLevelCacheMissCount(), statistics.getSecondLevelCachePutCount()));
+        snapshot.put("naturalId", counters(statistics.getNaturalIdCacheHitCount(),
+            statistics.getNaturalIdCacheMissCount(), statistics.getNaturalIdCachePutCount()));
+
+        Map<String, Object> regions = new HashMap<>();
+        for (String region : REGIONS) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics != null) {
+                Map<String, Object> counters = counters(regionStatistics.getHitCount(),
+                    regionStatistics.getMissCount(), regionStatistics.getPutCount());
+                counters.put("elementsInMemory", regionStatistics.getElementCountInMemory());
+                regions.put(region, counters);
+            }
+        }
+        snapshot.put("regions", regions);
+        return snapshot;
+    }
+
+    private static Map<String, Object> counters(long hits, long misses, long puts) {
+        Map<String, Object> counters = new HashMap<>();
+        counters.put("hits", hits);
+        counters.put("misses", misses);
+        counters.put("puts", puts);
+        counters.put("hitRate", hits + misses > 0 ? (double) hits / (hits + misses) : 0.0);
+        return counters;
+    }
+}
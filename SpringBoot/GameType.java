@@ -0,0 +1,25 @@
+package com.games.service;
+
+// The games hosted on PlayHive, keyed the same way as their /api/{key} routes
+public enum GameType {
+    EMOJI("emoji"),
+    MINDLOOP("mindloop"),
+    SHAPESHIFTER("shapeshifter");
+
+    private final String key;
+
+    GameType(String key) {
+        this.key = key;
+    }
+
+    public String getKey() { return key; }
+
+    public static GameType fromKey(String key) {
+        for (GameType game : values()) {
+            if (game.key.equalsIgnoreCase(key)) {
+                return game;
+            }
+        }
+        throw new IllegalArgumentException("Unknown game: " + key);
+    }
+}
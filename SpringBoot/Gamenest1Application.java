@@ -2,8 +2,12 @@ package com.games;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+// Request threading is chosen with playhive.threads.mode: platform (default, Tomcat's pool)
+// or virtual (Java 21+), see VirtualThreadConfig
 @SpringBootApplication
+@EnableScheduling
 public class Gamenest1Application {
 
 	public static void main(String[] args) {
@@ -0,0 +1,86 @@
+package com.games.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// playhive.db.check-index-plans=true: once the app is up (and Flyway has run), EXPLAIN a
+// hand-written equivalent of each hot repository query and fail startup unless MySQL picks the
+// index V2 / V4 built for it. Meant for CI / staging against a seeded database; on near-empty
+// tables the optimizer may prefer a full scan and the check says so instead of passing silently.
+// The SQL here is not captured from Hibernate, so a change to a repository method needs the
+// matching entry updated by hand.
+@Component
+@ConditionalOnProperty(name = "playhive.db.check-index-plans", havingValue = "true")
+public class IndexPlanCheck {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Hand-written SQL with the same table, predicates and ORDER BY as the repository method,
+    // literals standing in for its parameters -> indexes that serve it
+    private static final Map<String, Set<String>> PLANS = new LinkedHashMap<>();
+
+    static {
+        for (String table : List.of("emoji_scores", "mindloop_scores")) {
+            PLANS.put("SELECT id FROM " + table + " ORDER BY score DESC, time_taken ASC, id ASC LIMIT 50",
+                Set.of("idx_" + table + "_rank"));
+            PLANS.put("SELECT COUNT(*), SUM(score), MAX(score) FROM " + table + " WHERE user_id = 1",
+                Set.of("idx_" + table + "_user_score", "idx_" + table + "_user_level_score"));
+            PLANS.put("SELECT id, score FROM " + table + " WHERE user_id = 1 ORDER BY score DESC",
+                Set.of("idx_" + table + "_user_score"));
+            PLANS.put("SELECT id, score FROM " + table + " WHERE user_id = 1 AND level = 1 ORDER BY score DESC",
+                Set.of("idx_" + table + "_user_level_score"));
+            PLANS.put("SELECT id FROM " + table + " WHERE level = 1 " +
+                      "ORDER BY score DESC, time_taken ASC, id ASC LIMIT 50",
+                Set.of("idx_" + table + "_level_rank"));
+            PLANS.put("SELECT id FROM " + table + " WHERE played_at >= NOW() - INTERVAL 1 DAY " +
+                      "AND played_at < NOW() ORDER BY score DESC, time_taken ASC, id ASC",
+                Set.of("idx_" + table + "_played_at"));
+            // findLeaderboardAfter (findLeaderboardFirstPage is the rank query above)
+            PLANS.put("SELECT id FROM " + table + " WHERE score < 100 " +
+                      "OR (score = 100 AND (time_taken > 30 OR (time_taken = 30 AND id > 1))) " +
+                      "ORDER BY score DESC, time_taken ASC, id ASC LIMIT 50",
+                Set.of("idx_" + table + "_rank"));
+            // findByUser_IdAndIdempotencyKey
+            PLANS.put("SELECT id FROM " + table + " WHERE user_id = 1 AND idempotency_key = 'x'",
+                Set.of("uk_" + table + "_user_idempotency_key"));
+        }
+        PLANS.put("SELECT id FROM shape_shifter_scores ORDER BY score DESC, id ASC LIMIT 50",
+            Set.of("idx_shape_shifter_scores_rank"));
+        PLANS.put("SELECT id FROM shape_shifter_scores WHERE username = 'x' ORDER BY created_at DESC",
+            Set.of("idx_shape_shifter_scores_username_created"));
+        PLANS.put("SELECT id FROM shape_shifter_scores WHERE created_at >= NOW() - INTERVAL 1 DAY " +
+                  "AND created_at < NOW() ORDER BY score DESC, id ASC",
+            Set.of("idx_shape_shifter_scores_created_at"));
+        PLANS.put("SELECT id FROM users ORDER BY score DESC LIMIT 10",
+            Set.of("idx_users_score"));
+        PLANS.put("SELECT id FROM contact_messages WHERE email = 'x' ORDER BY timestamp ASC",
+            Set.of("idx_contact_messages_email_timestamp"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() {
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, Set<String>> plan : PLANS.entrySet()) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList("EXPLAIN " + plan.getKey());
+            Object key = rows.isEmpty() ? null : rows.get(0).get("key");
+            if (key == null || !plan.getValue().contains(key.toString())) {
+                failures.add(plan.getKey() + "\n   uses " + key + ", expected one of " + plan.getValue());
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Queries not using their index:\n - " + String.join("\n - ", failures));
+        }
+        System.out.println("✅ Index plans checked, " + PLANS.size() + " queries use their index");
+    }
+}
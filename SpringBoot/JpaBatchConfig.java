@@ -0,0 +1,28 @@
+package com.games.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Lets Hibernate group score inserts (and the matching user updates) into JDBC batches.
+// Only effective because the score ids now come from pooled sequences instead of IDENTITY.
+@Configuration
+public class JpaBatchConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer(
+            @Value("${playhive.jpa.batch-size:50}") int batchSize,
+            @Value("${playhive.jpa.statistics:${playhive.jpa.check-statement-budgets:${playhive.jpa.cache.enabled:false}}}")
+            boolean statistics) {
+        return properties -> {
+            properties.put("hibernate.jdbc.batch_size", batchSize);
+            properties.put("hibernate.order_inserts", true);
+            properties.put("hibernate.order_updates", true);
+            properties.put("hibernate.jdbc.batch_versioned_data", true);
+            // Statement counts per session and cache hit rates; on by default with the entity cache
+            // and with the statement budget check (StatementBudgetCheck)
+            properties.put("hibernate.generate_statistics", statistics);
+        };
+    }
+}
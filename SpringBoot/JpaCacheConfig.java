@@ -0,0 +1,27 @@
+package com.games.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Hibernate second-level cache (User by id and by email), off unless playhive.jpa.cache.enabled.
+// Needs a JCache provider on the classpath; region sizes come from the provider's config
+// (hibernate.javax.cache.uri). No query cache: any score insert would invalidate it, and the
+// per-user aggregates it would hold are already served by UserStatsCache.
+@Configuration
+public class JpaCacheConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(
+            @Value("${playhive.jpa.cache.enabled:false}") boolean enabled) {
+        return properties -> {
+            properties.put("hibernate.cache.use_second_level_cache", enabled);
+            properties.put("hibernate.cache.use_query_cache", false);
+            if (enabled) {
+                properties.put("hibernate.cache.region.factory_class", "jcache");
+                properties.put("hibernate.javax.cache.missing_cache_strategy", "create");
+            }
+        };
+    }
+}
@@ -0,0 +1,234 @@
+package com.games.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Live leaderboard channel. Every change is diffed and encoded once on a single fan-out
+// thread, then the same payload is queued for each subscriber of that game. The fan-out
+// thread never writes to a socket: each subscriber's queue is drained by a sender thread,
+// one drain per subscriber at a time so events stay in order. A client whose queue fills
+// up has fallen behind and is dropped (it reconnects and gets a fresh snapshot), so one
+// slow viewer can't hold back anyone else's updates.
+@Component
+public class LeaderboardBroadcaster {
+
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    @Autowired
+    private LeaderboardIndex leaderboardIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${playhive.leaderboard.stream.queue-size:32}")
+    private int queueSize;
+
+    private final Map<GameType, List<Subscriber>> subscribers = new EnumMap<>(GameType.class);
+
+    // Last board each game's subscribers were brought up to; only touched on the fan-out thread
+    private final Map<GameType, List<?>> lastSent = new EnumMap<>(GameType.class);
+    private final Map<GameType, Long> sequence = new EnumMap<>(GameType.class);
+
+    private final ExecutorService fanOut = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "leaderboard-broadcast");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ExecutorService senders;
+
+    public LeaderboardBroadcaster(@Value("${playhive.leaderboard.stream.sender-threads:8}") int senderThreads) {
+        senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "leaderboard-send");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (GameType game : GameType.values()) {
+            subscribers.put(game, new CopyOnWriteArrayList<>());
+            sequence.put(game, 0L);
+        }
+    }
+
+    public SseEmitter subscribe(GameType game) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        Subscriber subscriber = new Subscriber(emitter, queueSize);
+        List<Subscriber> list = subscribers.get(game);
+        emitter.onCompletion(() -> list.remove(subscriber));
+        emitter.onTimeout(() -> list.remove(subscriber));
+        emitter.onError(error -> list.remove(subscriber));
+
+        // Snapshot goes through the fan-out thread so it can't overtake a pending diff
+        fanOut.execute(() -> {
+            List<?> rows = current(game);
+            String payload = encode(snapshotPayload(game, rows));
+            deliver(subscriber, "snapshot", sequence.get(game), payload);
+            list.add(subscriber);
+        });
+        return emitter;
+    }
+
+    @EventListener
+    public void onLeaderboardChanged(LeaderboardChangedEvent event) {
+        GameType game = event.getGame();
+        fanOut.execute(() -> broadcastDiff(game));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOut.shutdownNow();
+        senders.shutdownNow();
+        for (List<Subscriber> list : subscribers.values()) {
+            list.forEach(subscriber -> subscriber.emitter.complete());
+        }
+    }
+
+    private void broadcastDiff(GameType game) {
+        List<?> before = current(game);
+        List<?> after = leaderboardIndex.top(game);
+        lastSent.put(game, after);
+
+        List<Map<String, Object>> changes = new ArrayList<>();
+        for (int i = 0; i < after.size(); i++) {
+            // Boards hold a new object whenever a row changes, so identity is enough
+            if (i >= before.size() || before.get(i) != after.get(i)) {
+                Map<String, Object> change = new HashMap<>();
+                change.put("rank", i + 1);
+                change.put("row", LeaderboardRows.of(game, after.get(i)));
+                changes.add(change);
+            }
+        }
+        if (changes.isEmpty() && before.size() == after.size()) {
+            return;
+        }
+
+        long id = sequence.merge(game, 1L, Long::sum);
+        List<Subscriber> list = subscribers.get(game);
+        if (list.isEmpty()) {
+            return;
+        }
+
+        Map<String, Object> diff = new HashMap<>();
+        diff.put("game", game.getKey());
+        diff.put("size", after.size());
+        diff.put("changes", changes);
+        String payload = encode(diff);
+        for (Subscriber subscriber : list) {
+            if (!deliver(subscriber, "diff", id, payload)) {
+                list.remove(subscriber);
+            }
+        }
+    }
+
+    // Fan-out thread only: queue the event and make sure a sender is draining this subscriber
+    private boolean deliver(Subscriber subscriber, String name, long id, String payload) {
+        if (subscriber.closed.get()) {
+            return false;
+        }
+        if (!subscriber.queue.offer(SseEmitter.event().id(Long.toString(id)).name(name).data(payload))) {
+            System.out.println("🐢 Dropping a leaderboard subscriber that fell " + queueSize + " updates behind");
+            subscriber.closed.set(true);
+            subscriber.queue.clear();
+            startDrain(subscriber);
+            return false;
+        }
+        startDrain(subscriber);
+        return true;
+    }
+
+    private void startDrain(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    // Sender thread only. The emitter is also completed here, never on the fan-out thread,
+    // because complete() waits for a send that is stuck on a slow socket.
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            SseEmitter.SseEventBuilder event;
+            while (!subscriber.closed.get() && (event = subscriber.queue.poll()) != null) {
+                if (!send(subscriber.emitter, event)) {
+                    subscriber.closed.set(true);
+                }
+            }
+            if (subscriber.closed.get()) {
+                // draining stays set, so nothing is sent to this emitter again
+                subscriber.queue.clear();
+                subscriber.emitter.complete();
+                return;
+            }
+            subscriber.draining.set(false);
+            // Work queued (or a close) after the last check found the drain still running and
+            // didn't start one, so pick it up here
+            if ((subscriber.queue.isEmpty() && !subscriber.closed.get())
+                    || !subscriber.draining.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private List<?> current(GameType game) {
+        return lastSent.computeIfAbsent(game, leaderboardIndex::top);
+    }
+
+    private Map<String, Object> snapshotPayload(GameType game, List<?> rows) {
+        List<Object> encodedRows = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            encodedRows.add(LeaderboardRows.of(game, row));
+        }
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("game", game.getKey());
+        snapshot.put("size", rows.size());
+        snapshot.put("rows", encodedRows);
+        return snapshot;
+    }
+
+    private boolean send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the container will complete the emitter
+            return false;
+        }
+    }
+
+    private String encode(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode leaderboard update: " + e.getMessage(), e);
+        }
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, int queueSize) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.games.service;
+
+// Published by LeaderboardIndex when the visible top of a game's board changed
+public class LeaderboardChangedEvent {
+
+    private final GameType game;
+
+    public LeaderboardChangedEvent(GameType game) {
+        this.game = game;
+    }
+
+    public GameType getGame() { return game; }
+}
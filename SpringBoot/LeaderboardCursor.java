@@ -0,0 +1,56 @@
+package com.games.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Keyset position in a full leaderboard ordered by (score DESC, timeTaken ASC, id ASC).
+// Clients only ever see it as an opaque page token.
+public final class LeaderboardCursor {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private final int score;
+    private final int timeTaken;
+    private final long id;
+
+    public LeaderboardCursor(int score, int timeTaken, long id) {
+        this.score = score;
+        this.timeTaken = timeTaken;
+        this.id = id;
+    }
+
+    public int getScore() { return score; }
+    public int getTimeTaken() { return timeTaken; }
+    public long getId() { return id; }
+
+    public String encode() {
+        String raw = score + ":" + timeTaken + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static LeaderboardCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid page token");
+            }
+            return new LeaderboardCursor(
+                Integer.parseInt(parts[0]),
+                Integer.parseInt(parts[1]),
+                Long.parseLong(parts[2])
+            );
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException and bad base64 both land here
+            throw new IllegalArgumentException("Invalid page token", e);
+        }
+    }
+
+    public static int clampPageSize(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(requested, MAX_PAGE_SIZE);
+    }
+}
@@ -0,0 +1,165 @@
+package com.games.service;
+
+import com.games.model.EmojiScore;
+import com.games.model.MindloopScore;
+import com.games.model.ShapeShifterScore;
+import com.games.repository.EmojiScoreRepository;
+import com.games.repository.MindloopScoreRepository;
+import com.games.repository.ShapeShifterScoreRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.List;
+
+// In-memory top-K of every game, loaded once at startup and then kept current
+// from committed saves/deletes, so leaderboard reads never hit the database.
+@Component
+public class LeaderboardIndex {
+
+    public static final int LEADERBOARD_SIZE = 10;
+
+    // Same ordering the full leaderboards use: best score, then fastest, then oldest
+    public static final Comparator<EmojiScore> EMOJI_ORDER =
+        Comparator.comparingInt(EmojiScore::getScore).reversed()
+            .thenComparingInt(EmojiScore::getTimeTaken)
+            .thenComparing(EmojiScore::getId);
+
+    public static final Comparator<MindloopScore> MINDLOOP_ORDER =
+        Comparator.comparingInt(MindloopScore::getScore).reversed()
+            .thenComparingInt(MindloopScore::getTimeTaken)
+            .thenComparing(MindloopScore::getId);
+
+    public static final Comparator<ShapeShifterScore> SHAPESHIFTER_ORDER =
+        Comparator.comparingInt(ShapeShifterScore::getScore).reversed()
+            .thenComparing(ShapeShifterScore::getId);
+
+    @Autowired
+    private EmojiScoreRepository emojiScoreRepository;
+
+    @Autowired
+    private MindloopScoreRepository mindloopScoreRepository;
+
+    @Autowired
+    private ShapeShifterScoreRepository shapeShifterScoreRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Rows kept per board; the slack beyond LEADERBOARD_SIZE absorbs deletes without a reload
+    @Value("${playhive.leaderboard.depth:50}")
+    private int depth;
+
+    private TopKBoard<EmojiScore> emojiBoard;
+    private TopKBoard<MindloopScore> mindloopBoard;
+    private TopKBoard<ShapeShifterScore> shapeShifterBoard;
+
+    @PostConstruct
+    public void load() {
+        int capacity = Math.max(depth, LEADERBOARD_SIZE);
+        emojiBoard = new TopKBoard<>(capacity, LEADERBOARD_SIZE, EMOJI_ORDER, EmojiScore::getId);
+        mindloopBoard = new TopKBoard<>(capacity, LEADERBOARD_SIZE, MINDLOOP_ORDER, MindloopScore::getId);
+        shapeShifterBoard = new TopKBoard<>(capacity, LEADERBOARD_SIZE, SHAPESHIFTER_ORDER, ShapeShifterScore::getId);
+
+        reloadEmoji();
+        reloadMindloop();
+        reloadShapeShifter();
+
+        System.out.println("🏆 Leaderboard index loaded: emoji=" + emojiBoard.size()
+            + ", mindloop=" + mindloopBoard.size()
+            + ", shapeshifter=" + shapeShifterBoard.size());
+    }
+
+    public List<EmojiScore> emojiTop() { return emojiBoard.top(LEADERBOARD_SIZE); }
+
+    public List<MindloopScore> mindloopTop() { return mindloopBoard.top(LEADERBOARD_SIZE); }
+
+    public List<ShapeShifterScore> shapeShifterTop() { return shapeShifterBoard.top(LEADERBOARD_SIZE); }
+
+    public long emojiVersion() { return emojiBoard.version(); }
+
+    public long mindloopVersion() { return mindloopBoard.version(); }
+
+    public long shapeShifterVersion() { return shapeShifterBoard.version(); }
+
+    public List<?> top(GameType game) {
+        switch (game) {
+            case EMOJI:
+                return emojiTop();
+            case MINDLOOP:
+                return mindloopTop();
+            default:
+                return shapeShifterTop();
+        }
+    }
+
+    // 🟢 Committed submissions
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmojiScoreSaved(ScoreSavedEvent<EmojiScore> event) {
+        notifyIfChanged(GameType.EMOJI, emojiBoard.offer(event.getScore()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMindloopScoreSaved(ScoreSavedEvent<MindloopScore> event) {
+        notifyIfChanged(GameType.MINDLOOP, mindloopBoard.offer(event.getScore()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShapeShifterScoreSaved(ScoreSavedEvent<ShapeShifterScore> event) {
+        notifyIfChanged(GameType.SHAPESHIFTER, shapeShifterBoard.offer(event.getScore()));
+    }
+
+    // 🔴 Deletions - only reload when the board ran out of backfill rows
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmojiScoreDeleted(ScoreDeletedEvent<EmojiScore> event) {
+        notifyIfChanged(GameType.EMOJI, emojiBoard.remove(event.getScore().getId(), this::loadEmoji));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMindloopScoreDeleted(ScoreDeletedEvent<MindloopScore> event) {
+        notifyIfChanged(GameType.MINDLOOP, mindloopBoard.remove(event.getScore().getId(), this::loadMindloop));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShapeShifterScoreDeleted(ScoreDeletedEvent<ShapeShifterScore> event) {
+        notifyIfChanged(GameType.SHAPESHIFTER,
+            shapeShifterBoard.remove(event.getScore().getId(), this::loadShapeShifter));
+    }
+
+    // Most submissions land below the visible top; only tell live subscribers when it moved.
+    // The boards decide that under their own lock, so concurrent writes can't double or drop it.
+    private void notifyIfChanged(GameType game, boolean changed) {
+        if (changed) {
+            eventPublisher.publishEvent(new LeaderboardChangedEvent(game));
+        }
+    }
+
+    private void reloadEmoji() {
+        emojiBoard.reload(this::loadEmoji);
+    }
+
+    private void reloadMindloop() {
+        mindloopBoard.reload(this::loadMindloop);
+    }
+
+    private void reloadShapeShifter() {
+        shapeShifterBoard.reload(this::loadShapeShifter);
+    }
+
+    private List<EmojiScore> loadEmoji() {
+        return emojiScoreRepository.findByOrderByScoreDescTimeTakenAscIdAsc(PageRequest.of(0, emojiBoard.capacity()));
+    }
+
+    private List<MindloopScore> loadMindloop() {
+        return mindloopScoreRepository.findByOrderByScoreDescTimeTakenAscIdAsc(PageRequest.of(0, mindloopBoard.capacity()));
+    }
+
+    private List<ShapeShifterScore> loadShapeShifter() {
+        return shapeShifterScoreRepository.findByOrderByScoreDescIdAsc(PageRequest.of(0, shapeShifterBoard.capacity()));
+    }
+}
@@ -0,0 +1,19 @@
+package com.games.service;
+
+import java.util.List;
+
+// One keyset page of a full leaderboard; nextPageToken is null on the last page
+public class LeaderboardPage<T> {
+
+    private final List<T> items;
+    private final String nextPageToken;
+
+    public LeaderboardPage(List<T> items, String nextPageToken) {
+        this.items = items;
+        this.nextPageToken = nextPageToken;
+    }
+
+    public List<T> getItems() { return items; }
+    public String getNextPageToken() { return nextPageToken; }
+    public boolean hasNext() { return nextPageToken != null; }
+}
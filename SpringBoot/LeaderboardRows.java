@@ -0,0 +1,49 @@
+package com.games.service;
+
+import com.games.model.EmojiScore;
+import com.games.model.MindloopScore;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// JSON row shapes of the game leaderboards, shared by the REST and live endpoints
+public final class LeaderboardRows {
+
+    private LeaderboardRows() {}
+
+    public static Map<String, Object> emoji(EmojiScore score) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", score.getId());
+        response.put("score", score.getScore());
+        response.put("level", score.getLevel());
+        response.put("timeTaken", score.getTimeTaken());
+        response.put("correctAnswers", score.getCorrectAnswers());
+        response.put("totalQuestions", score.getTotalQuestions());
+        response.put("playedAt", score.getPlayedAt());
+        response.put("username", score.getUser().getUsername());
+        response.put("userEmail", score.getUser().getEmail()); // Add email for highlighting
+        return response;
+    }
+
+    public static Map<String, Object> mindloop(MindloopScore score) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("username", score.getUser().getUsername());
+        response.put("score", score.getScore());
+        response.put("level", score.getLevel());
+        response.put("timeTaken", score.getTimeTaken());
+        response.put("playedOn", score.getPlayedAt());
+        return response;
+    }
+
+    // ShapeShifter has always returned its entity as-is
+    public static Object of(GameType game, Object score) {
+        switch (game) {
+            case EMOJI:
+                return emoji((EmojiScore) score);
+            case MINDLOOP:
+                return mindloop((MindloopScore) score);
+            default:
+                return score;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.games.service;
+
+// Rolling windows served by the windowed leaderboards, counted in whole days including today
+public enum LeaderboardWindow {
+    DAILY(1),
+    WEEKLY(7),
+    MONTHLY(30);
+
+    private final int days;
+
+    LeaderboardWindow(int days) {
+        this.days = days;
+    }
+
+    public int getDays() { return days; }
+
+    public static int longestDays() {
+        return MONTHLY.days;
+    }
+
+    // "daily", "weekly", "monthly" as used in the URL
+    public static LeaderboardWindow fromPath(String value) {
+        for (LeaderboardWindow window : values()) {
+            if (window.name().equalsIgnoreCase(value)) {
+                return window;
+            }
+        }
+        throw new IllegalArgumentException("Unknown leaderboard window: " + value);
+    }
+}
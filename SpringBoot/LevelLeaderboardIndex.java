@@ -0,0 +1,122 @@
+package com.games.service;
+
+import com.games.model.EmojiScore;
+import com.games.model.MindloopScore;
+import com.games.repository.EmojiScoreRepository;
+import com.games.repository.MindloopScoreRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Top-K per (game, level) for the level-structured games.
+// Every level that has rows is loaded at startup; a level first seen later starts empty and complete.
+// Only levels inside the game's range (ScoreLimits) get a board, so the maps stay bounded.
+@Component
+public class LevelLeaderboardIndex {
+
+    @Autowired
+    private EmojiScoreRepository emojiScoreRepository;
+
+    @Autowired
+    private MindloopScoreRepository mindloopScoreRepository;
+
+    @Autowired
+    private ScoreLimits scoreLimits;
+
+    @Value("${playhive.leaderboard.depth:50}")
+    private int depth;
+
+    private final Map<Integer, TopKBoard<EmojiScore>> emojiBoards = new ConcurrentHashMap<>();
+    private final Map<Integer, TopKBoard<MindloopScore>> mindloopBoards = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        for (Integer level : emojiScoreRepository.findDistinctLevels()) {
+            if (scoreLimits.isValidLevel(GameType.EMOJI, level)) {
+                reloadEmoji(level);
+            }
+        }
+        for (Integer level : mindloopScoreRepository.findDistinctLevels()) {
+            if (scoreLimits.isValidLevel(GameType.MINDLOOP, level)) {
+                reloadMindloop(level);
+            }
+        }
+
+        System.out.println("🎚️ Level leaderboards loaded: emoji=" + emojiBoards.keySet()
+            + ", mindloop=" + mindloopBoards.keySet());
+    }
+
+    public List<EmojiScore> emojiTop(int level) {
+        TopKBoard<EmojiScore> board = emojiBoards.get(level);
+        return board != null ? board.top(LeaderboardIndex.LEADERBOARD_SIZE) : Collections.emptyList();
+    }
+
+    public List<MindloopScore> mindloopTop(int level) {
+        TopKBoard<MindloopScore> board = mindloopBoards.get(level);
+        return board != null ? board.top(LeaderboardIndex.LEADERBOARD_SIZE) : Collections.emptyList();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmojiScoreSaved(ScoreSavedEvent<EmojiScore> event) {
+        EmojiScore score = event.getScore();
+        if (!scoreLimits.isValidLevel(GameType.EMOJI, score.getLevel())) {
+            return;
+        }
+        emojiBoards.computeIfAbsent(score.getLevel(),
+            level -> new TopKBoard<>(capacity(), LeaderboardIndex.EMOJI_ORDER, EmojiScore::getId))
+            .offer(score);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMindloopScoreSaved(ScoreSavedEvent<MindloopScore> event) {
+        MindloopScore score = event.getScore();
+        if (!scoreLimits.isValidLevel(GameType.MINDLOOP, score.getLevel())) {
+            return;
+        }
+        mindloopBoards.computeIfAbsent(score.getLevel(),
+            level -> new TopKBoard<>(capacity(), LeaderboardIndex.MINDLOOP_ORDER, MindloopScore::getId))
+            .offer(score);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmojiScoreDeleted(ScoreDeletedEvent<EmojiScore> event) {
+        EmojiScore score = event.getScore();
+        TopKBoard<EmojiScore> board = emojiBoards.get(score.getLevel());
+        if (board != null && board.remove(score.getId()) && board.needsRefill(LeaderboardIndex.LEADERBOARD_SIZE)) {
+            reloadEmoji(score.getLevel());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMindloopScoreDeleted(ScoreDeletedEvent<MindloopScore> event) {
+        MindloopScore score = event.getScore();
+        TopKBoard<MindloopScore> board = mindloopBoards.get(score.getLevel());
+        if (board != null && board.remove(score.getId()) && board.needsRefill(LeaderboardIndex.LEADERBOARD_SIZE)) {
+            reloadMindloop(score.getLevel());
+        }
+    }
+
+    private void reloadEmoji(int level) {
+        emojiBoards.computeIfAbsent(level,
+            l -> new TopKBoard<>(capacity(), LeaderboardIndex.EMOJI_ORDER, EmojiScore::getId))
+            .reload(() -> emojiScoreRepository.findByLevelOrderByScoreDescTimeTakenAscIdAsc(level, PageRequest.of(0, capacity())));
+    }
+
+    private void reloadMindloop(int level) {
+        mindloopBoards.computeIfAbsent(level,
+            l -> new TopKBoard<>(capacity(), LeaderboardIndex.MINDLOOP_ORDER, MindloopScore::getId))
+            .reload(() -> mindloopScoreRepository.findByLevelOrderByScoreDescTimeTakenAscIdAsc(level, PageRequest.of(0, capacity())));
+    }
+
+    private int capacity() {
+        return Math.max(depth, LeaderboardIndex.LEADERBOARD_SIZE);
+    }
+}
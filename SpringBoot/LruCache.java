@@ -0,0 +1,110 @@
+package com.games.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+// Small size-bounded map that drops the least recently used entry once full.
+// With a TTL, entries also expire that long after they were written. Counts hits and misses of get().
+public class LruCache<K, V> {
+
+    private final Map<K, Entry<V>> entries;
+    private final long ttlNanos;
+    private long hits;
+    private long misses;
+
+    public LruCache(int maxEntries) {
+        this(maxEntries, Duration.ZERO);
+    }
+
+    // Duration.ZERO means entries never expire
+    public LruCache(int maxEntries, Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxEntries || eldest.getValue().isExpired(System.nanoTime());
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            entries.remove(key);
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, expiry()));
+    }
+
+    // Stores value unless a live entry exists; returns that entry, or null if value was stored
+    public synchronized V putIfAbsent(K key, V value) {
+        V current = get(key);
+        if (current != null) {
+            return current;
+        }
+        put(key, value);
+        return null;
+    }
+
+    // Replace an entry only if it is cached; absent keys stay absent. Keeps the original expiry.
+    public synchronized void updateIfPresent(K key, UnaryOperator<V> update) {
+        V current = get(key);
+        if (current != null) {
+            entries.put(key, new Entry<>(update.apply(current), entries.get(key).expiresAt));
+        }
+    }
+
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    // Removes the entry only while it still maps to value
+    public synchronized void remove(K key, V value) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.value == value) {
+            entries.remove(key);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long hitCount() {
+        return hits;
+    }
+
+    public synchronized long missCount() {
+        return misses;
+    }
+
+    private long expiry() {
+        return ttlNanos > 0 ? System.nanoTime() + ttlNanos : Long.MAX_VALUE;
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt != Long.MAX_VALUE && now - expiresAt > 0;
+        }
+    }
+}
@@ -1,19 +1,43 @@
 package com.games.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.games.model.MindloopScore;
-import com.games.model.User;
+import com.games.service.BulkScoreResult;
+import com.games.service.EncodedResponse;
+import com.games.service.EncodedResponseCache;
+import com.games.service.GameType;
+import com.games.service.LeaderboardBroadcaster;
+import com.games.service.LeaderboardCursor;
+import com.games.service.LeaderboardPage;
+import com.games.service.LeaderboardRows;
+import com.games.service.LeaderboardWindow;
 import com.games.service.MindloopScoreService;
-import com.games.repository.UserRepository;
+import com.games.service.ScoreIngestion;
+import com.games.service.ScoreCommitPendingException;
+import com.games.service.ScoreRank;
+import com.games.service.ScoreSubmission;
+import com.games.service.UserDirectory;
+import com.games.service.UserScoreStats;
+import com.games.repository.MindloopScoreRow;
+import com.games.repository.UserIdentity;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @RestController
@@ -28,7 +52,19 @@ public class MindloopController {
     private MindloopScoreService mindloopScoreService;
 
     @Autowired
-    private UserRepository userRepository;
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EncodedResponseCache encodedResponseCache;
+
+    @Autowired
+    private LeaderboardBroadcaster leaderboardBroadcaster;
+
+    @Autowired
+    private ScoreIngestion scoreIngestion;
+
+    @Autowired
+    private UserDirectory userDirectory;
 
     // Request DTO for score submission by email
     public static class EmailScoreRequest {
@@ -38,6 +74,7 @@ public class MindloopController {
         private int timeTaken;
         private int correctAnswers;
         private int totalQuestions;
+        private String idempotencyKey;
 
         // Getters and Setters
         public String getEmail() { return email; }
@@ -52,12 +89,17 @@ public class MindloopController {
         public void setCorrectAnswers(int correctAnswers) { this.correctAnswers = correctAnswers; }
         public int getTotalQuestions() { return totalQuestions; }
         public void setTotalQuestions(int totalQuestions) { this.totalQuestions = totalQuestions; }
+        
+        // Optional; the same key on a retry returns the original saved score
+        public String getIdempotencyKey() { return idempotencyKey; }
+        public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
     }
 
     // 🟢 SUBMIT SCORE BY EMAIL - SIMPLE VERSION
    // 🟢 SUBMIT SCORE BY EMAIL - SIMPLE VERSION
 @PostMapping("/submit-score-by-email-simple")
-public ResponseEntity<?> submitScoreByEmailSimple(@RequestBody EmailScoreRequest scoreRequest) {
+public ResponseEntity<?> submitScoreByEmailSimple(@RequestBody EmailScoreRequest scoreRequest,
+                                                  @RequestParam(defaultValue = "sync") String ack) {
     
     System.out.println("🎯 MINDLOOP SIMPLE VERSION: Received score submission by email:");
     System.out.println("   Email: " + scoreRequest.getEmail());
@@ -70,47 +112,29 @@ public ResponseEntity<?> submitScoreByEmailSimple(@RequestBody EmailScoreRequest
                     .body(createErrorResponse("Email is required"));
         }
         
-        String email = scoreRequest.getEmail().trim().toLowerCase();
-        
-        // Find user by email or create new one if doesn't exist
-        Optional<User> userOptional = userRepository.findByEmail(email);
-        User user;
+        // Find user by email or create new one if doesn't exist (one SELECT for existing players)
+        UserIdentity user = userDirectory.findOrCreateByEmail(scoreRequest.getEmail());
+        System.out.println("👤 Saving score for user: " + user.getUsername() + " (ID: " + user.getId() + ")");
         
-        if (userOptional.isEmpty()) {
-            // Create new user
-            System.out.println("👤 Creating new user for email: " + email);
-            user = new User();
-            user.setEmail(email);
-            user.setUsername(email.split("@")[0]); // Use part before @ as username            
-            // Initialize all fields
-            user.setLevel(1);
-            user.setScore(0);
-            user.setGamesPlayed(0);
-            user.setHighestScore(0);
-            user.setAverageScore(0.0);
-            user.setTotalCorrectAnswers(0);
-            user.setTotalTimePlayed(0);
-            user.setAccuracy(0.0);
-            
-            user = userRepository.save(user);
-            System.out.println("✅ New user created with ID: " + user.getId());
-        } else {
-            user = userOptional.get();
-            System.out.println("👤 Existing user found: " + user.getUsername() + " (ID: " + user.getId() + ")");
-        }
-        
-        // Initialize user fields if needed (safety check)
-        initializeUserFields(user);
-        
-        // Save the score
-        MindloopScore savedScore = mindloopScoreService.saveScore(
+        // Save the score; user stats are updated in the same transaction
+        CompletableFuture<MindloopScore> pending = scoreIngestion.submitMindloop(new ScoreSubmission(
             user.getId(), 
             scoreRequest.getScore(), 
             scoreRequest.getLevel(), 
             scoreRequest.getTimeTaken(), 
             scoreRequest.getCorrectAnswers(), 
-            scoreRequest.getTotalQuestions()
-        );
+            scoreRequest.getTotalQuestions(),
+            scoreRequest.getIdempotencyKey()
+        ));
+        if (ScoreIngestion.isAsync(ack)) {
+            Map<String, Object> queued = new HashMap<>();
+            queued.put("status", "accepted");
+            queued.put("message", "Mindloop score queued");
+            queued.put("username", user.getUsername());
+            queued.put("userId", user.getId());
+            return ResponseEntity.accepted().body(queued);
+        }
+        MindloopScore savedScore = scoreIngestion.awaitCommit(pending);
         
         System.out.println("✅ Mindloop score saved successfully with ID: " + savedScore.getId());
         System.out.println("   User: " + user.getUsername() + " (ID: " + user.getId() + ")");
@@ -125,6 +149,18 @@ public ResponseEntity<?> submitScoreByEmailSimple(@RequestBody EmailScoreRequest
         
         return ResponseEntity.ok(response);
         
+    } catch (IllegalArgumentException e) {
+        return ResponseEntity.badRequest()
+                .body(createErrorResponse(e.getMessage()));
+    } catch (ScoreCommitPendingException e) {
+        // Still with the writer and may yet be saved
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "pending");
+        response.put("message", e.getMessage());
+        return ResponseEntity.accepted().body(response);
+    } catch (IllegalStateException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(createErrorResponse(e.getMessage()));
     } catch (Exception e) {
         System.out.println("❌ Error saving mindloop score: " + e.getMessage());
         e.printStackTrace();
@@ -133,26 +169,54 @@ public ResponseEntity<?> submitScoreByEmailSimple(@RequestBody EmailScoreRequest
     }
 }
 
+    // 🟢 BULK SUBMIT - rounds played offline, as a JSON array or NDJSON (one round per line).
+    // Read incrementally and saved in chunked transactions, one stats update per user per chunk.
+    @PostMapping(value = "/submit-scores/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson" })
+    public ResponseEntity<?> submitScoresBulk(HttpServletRequest request) {
+        // Each email is resolved (or its player created) once per upload
+        Map<String, Long> userIds = new HashMap<>();
+        try (MappingIterator<EmailScoreRequest> rounds = objectMapper.readerFor(EmailScoreRequest.class)
+                .readValues(request.getInputStream())) {
+            BulkScoreResult result = scoreIngestion.saveBulk(GameType.MINDLOOP, rounds, round -> {
+                if (round.getEmail() == null || round.getEmail().trim().isEmpty()) {
+                    throw new IllegalArgumentException("Email is required");
+                }
+                Long userId = userIds.computeIfAbsent(UserDirectory.normalize(round.getEmail()),
+                    email -> userDirectory.findOrCreateByEmail(email).getId());
+                return new ScoreSubmission(
+                    userId,
+                    round.getScore(),
+                    round.getLevel(),
+                    round.getTimeTaken(),
+                    round.getCorrectAnswers(),
+                    round.getTotalQuestions(),
+                    round.getIdempotencyKey()
+                );
+            });
+
+            System.out.println("📦 Mindloop bulk upload: " + result.getSaved() + " saved, " + result.getFailed() + " failed");
+            return result.isComplete() ? ResponseEntity.ok(result) : ResponseEntity.badRequest().body(result);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest()
+                    .body(createErrorResponse("Unreadable upload: " + e.getMessage()));
+        }
+    }
+
     // 🟢 GET USER SCORES BY EMAIL
     @GetMapping("/scores-by-email")
     public ResponseEntity<?> getUserScoresByEmail(@RequestParam String email) {
         try {
             // Find user by email
-            Optional<User> userOptional = userRepository.findByEmail(email);
+            Optional<UserIdentity> userOptional = userDirectory.findByEmail(email);
             if (userOptional.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(createErrorResponse("User not found with email: " + email));
             }
             
-            User user = userOptional.get();
-            List<MindloopScore> scores = mindloopScoreService.getUserScores(user.getId());
-            
-            // Convert to response DTO
-            List<Map<String, Object>> scoreResponses = scores.stream()
-                .map(this::convertToScoreResponse)
-                .collect(Collectors.toList());
-            
-            return ResponseEntity.ok(scoreResponses);
+            UserIdentity user = userOptional.get();
+            // Projected rows, serialized directly
+            List<MindloopScoreRow> scores = mindloopScoreService.getUserScores(user.getId());
+            return ResponseEntity.ok(scores);
             
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -162,13 +226,46 @@ public ResponseEntity<?> submitScoreByEmailSimple(@RequestBody EmailScoreRequest
 
     // 🟢 GET GLOBAL LEADERBOARD
     @GetMapping("/leaderboard")
-    public ResponseEntity<?> getGlobalLeaderboard() {
+    public ResponseEntity<?> getGlobalLeaderboard(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        try {
+            // Encoded once per board change; unchanged boards are answered with 304
+            EncodedResponse leaderboard = encodedResponseCache.get("mindloop-leaderboard",
+                mindloopScoreService.getGlobalLeaderboardVersion(),
+                () -> mindloopScoreService.getGlobalLeaderboard().stream()
+                    .map(this::convertToLeaderboardResponse)
+                    .collect(Collectors.toList()));
+
+            if (leaderboard.matches(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(leaderboard.getETag())
+                        .cacheControl(CacheControl.noCache())
+                        .build();
+            }
+            return ResponseEntity.ok()
+                    .eTag(leaderboard.getETag())
+                    .cacheControl(CacheControl.noCache())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(leaderboard.getBody());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error retrieving leaderboard: " + e.getMessage()));
+        }
+    }
+
+    // 🟢 LIVE LEADERBOARD - SSE: one "snapshot" event, then a "diff" whenever the top 10 changes
+    @GetMapping(value = "/leaderboard/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter liveLeaderboard() {
+        return leaderboardBroadcaster.subscribe(GameType.MINDLOOP);
+    }
+
+    // 🟢 GET DAILY / WEEKLY / MONTHLY LEADERBOARD
+    @GetMapping("/leaderboard/{window:daily|weekly|monthly}")
+    public ResponseEntity<?> getWindowLeaderboard(@PathVariable String window) {
         try {
-            List<MindloopScore> leaderboard = mindloopScoreService.getGlobalLeaderboard();
+            List<MindloopScore> leaderboard = mindloopScoreService.getWindowLeaderboard(LeaderboardWindow.fromPath(window));
             List<Map<String, Object>> leaderboardResponse = leaderboard.stream()
                 .map(this::convertToLeaderboardResponse)
                 .collect(Collectors.toList());
-            
             return ResponseEntity.ok(leaderboardResponse);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -176,24 +273,84 @@ public ResponseEntity<?> submitScoreByEmailSimple(@RequestBody EmailScoreRequest
         }
     }
 
+    // 🟢 GET LEVEL LEADERBOARD
+    @GetMapping("/leaderboard/level/{level}")
+    public ResponseEntity<?> getLevelLeaderboard(@PathVariable int level) {
+        try {
+            List<MindloopScore> leaderboard = mindloopScoreService.getLevelLeaderboard(level);
+            List<Map<String, Object>> leaderboardResponse = leaderboard.stream()
+                .map(this::convertToLeaderboardResponse)
+                .collect(Collectors.toList());
+            return ResponseEntity.ok(leaderboardResponse);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error retrieving level leaderboard: " + e.getMessage()));
+        }
+    }
+
+    // 🟢 GET FULL LEADERBOARD - one keyset page per call, follow nextPageToken for more
+    @GetMapping("/leaderboard/full")
+    public ResponseEntity<?> getFullLeaderboard(@RequestParam(required = false) String pageToken,
+                                                @RequestParam(required = false) Integer size) {
+        try {
+            LeaderboardPage<MindloopScore> page = mindloopScoreService.getFullLeaderboard(
+                pageToken, LeaderboardCursor.clampPageSize(size));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("items", page.getItems().stream()
+                .map(this::convertToLeaderboardResponse)
+                .collect(Collectors.toList()));
+            response.put("nextPageToken", page.getNextPageToken());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error retrieving leaderboard: " + e.getMessage()));
+        }
+    }
+
+    // 🟢 STREAM FULL LEADERBOARD - NDJSON, one row per line, written page by page
+    @GetMapping(value = "/leaderboard/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamFullLeaderboard() {
+        StreamingResponseBody body = out -> {
+            String pageToken = null;
+            do {
+                LeaderboardPage<MindloopScore> page = mindloopScoreService.getFullLeaderboard(
+                    pageToken, LeaderboardCursor.MAX_PAGE_SIZE);
+                for (MindloopScore score : page.getItems()) {
+                    out.write(objectMapper.writeValueAsBytes(convertToLeaderboardResponse(score)));
+                    out.write('\n');
+                }
+                out.flush();
+                pageToken = page.getNextPageToken();
+            } while (pageToken != null);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     // 🟢 GET USER STATISTICS
     @GetMapping("/user-stats")
     public ResponseEntity<?> getUserStats(@RequestParam String email) {
         try {
-            Optional<User> userOptional = userRepository.findByEmail(email);
+            Optional<UserIdentity> userOptional = userDirectory.findByEmail(email);
             if (userOptional.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(createErrorResponse("User not found with email: " + email));
             }
             
-            User user = userOptional.get();
+            UserIdentity user = userOptional.get();
             Long userId = user.getId();
             
+            UserScoreStats userStats = mindloopScoreService.getUserStats(userId);
+
             Map<String, Object> stats = new HashMap<>();
             stats.put("username", user.getUsername());
-            stats.put("totalGamesPlayed", mindloopScoreService.getUserGamesPlayed(userId));
-            stats.put("highScore", mindloopScoreService.getUserHighScore(userId).orElse(0));
-            stats.put("averageScore", mindloopScoreService.getUserAverageScore(userId).orElse(0.0));
+            stats.put("totalGamesPlayed", userStats.getGamesPlayed());
+            stats.put("highScore", userStats.getHighScore().orElse(0));
+            stats.put("averageScore", userStats.getAverageScore().orElse(0.0));
             
             return ResponseEntity.ok(stats);
         } catch (Exception e) {
@@ -202,44 +359,40 @@ public ResponseEntity<?> submitScoreByEmailSimple(@RequestBody EmailScoreRequest
         }
     }
 
-    // Helper method to initialize user fields
-    private void initializeUserFields(User user) {
-        if (user.getLevel() == null) user.setLevel(1);
-        if (user.getScore() == null) user.setScore(0);
-        if (user.getGamesPlayed() == null) user.setGamesPlayed(0);
-        if (user.getHighestScore() == null) user.setHighestScore(0);
-        if (user.getAverageScore() == null) user.setAverageScore(0.0);
-        if (user.getTotalCorrectAnswers() == null) user.setTotalCorrectAnswers(0);
-        if (user.getTotalTimePlayed() == null) user.setTotalTimePlayed(0);
-        if (user.getAccuracy() == null) user.setAccuracy(0.0);
-        if (user.getAverageTimePerGame() == null) user.setAverageTimePerGame(0.0);
-        
-        // Save the initialized user
-        userRepository.save(user);
-    }
+    // 🟢 GET USER GLOBAL RANK
+    @GetMapping("/my-rank")
+    public ResponseEntity<?> getUserRank(@RequestParam String email) {
+        try {
+            Optional<UserIdentity> userOptional = userDirectory.findByEmail(email);
+            if (userOptional.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(createErrorResponse("User not found with email: " + email));
+            }
 
-    // Helper method to convert score to response
-    private Map<String, Object> convertToScoreResponse(MindloopScore score) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("id", score.getId());
-        response.put("score", score.getScore());
-        response.put("level", score.getLevel());
-        response.put("timeTaken", score.getTimeTaken());
-        response.put("correctAnswers", score.getCorrectAnswers());
-        response.put("totalQuestions", score.getTotalQuestions());
-        response.put("username", score.getUser().getUsername());
-        return response;
+            UserIdentity user = userOptional.get();
+            Optional<ScoreRank> rank = mindloopScoreService.getUserRank(user.getId());
+            if (rank.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(createErrorResponse("No mindloop scores recorded yet"));
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("username", user.getUsername());
+            response.put("bestScore", rank.get().getScore());
+            response.put("rank", rank.get().getRank());
+            response.put("totalScores", rank.get().getTotalScores());
+            response.put("percentile", rank.get().getPercentile());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error retrieving rank: " + e.getMessage()));
+        }
     }
 
     // Helper method for leaderboard response
+    // Same row shape the live channel pushes
     private Map<String, Object> convertToLeaderboardResponse(MindloopScore score) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("username", score.getUser().getUsername());
-        response.put("score", score.getScore());
-        response.put("level", score.getLevel());
-        response.put("timeTaken", score.getTimeTaken());
-        response.put("playedOn", score.getPlayedAt()); 
-        return response;
+        return LeaderboardRows.mindloop(score);
     }
 
     // Helper method to create error response
@@ -8,11 +8,13 @@ import java.time.LocalDateTime;
 public class MindloopScore {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "mindloop_scores_seq")
+    @SequenceGenerator(name = "mindloop_scores_seq", sequenceName = "mindloop_scores_seq", allocationSize = 50)
     @Column(name = "id", columnDefinition = "BIGINT")
     private Long id;
     
-    @ManyToOne
+    // Lazy: score queries state whether they need the user (see the repositories' entity graphs)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false, columnDefinition = "BIGINT")
     private User user;
     
@@ -34,6 +36,10 @@ public class MindloopScore {
     @Column(name = "played_at")  // Changed from playedOn to played_at to match emoji_scores
     private LocalDateTime playedAt;
     
+    // Client-supplied dedup key, unique per user (see V4__score_idempotency_keys.sql) so a retried submit can't insert twice
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+    
     // Constructors
     public MindloopScore() {
         this.playedAt = LocalDateTime.now();
@@ -74,4 +80,7 @@ public class MindloopScore {
 
     public LocalDateTime getPlayedAt() { return playedAt; }
     public void setPlayedAt(LocalDateTime playedAt) { this.playedAt = playedAt; }
+    
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
 }
\ No newline at end of file
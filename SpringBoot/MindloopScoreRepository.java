@@ -2,28 +2,81 @@ package com.games.repository;
 
 import com.games.model.MindloopScore;
 import com.games.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MindloopScoreRepository extends JpaRepository<MindloopScore, Long> {
     
     // Find all scores for a user, ordered by score descending
-    List<MindloopScore> findByUserOrderByScoreDesc(User user);
+    @Query("SELECT new com.games.repository.MindloopScoreRow(ms.id, ms.score, ms.level, ms.timeTaken, " +
+           "ms.correctAnswers, ms.totalQuestions, u.username) " +
+           "FROM MindloopScore ms JOIN ms.user u WHERE u.id = :userId ORDER BY ms.score DESC")
+    List<MindloopScoreRow> findRowsByUserId(@Param("userId") Long userId);
     
     // Find top 10 global scores
+    @EntityGraph(attributePaths = "user")
     List<MindloopScore> findTop10ByOrderByScoreDesc();
     
+    // Leaderboard index backfill, same order as the in-memory boards
+    @EntityGraph(attributePaths = "user")
+    List<MindloopScore> findByOrderByScoreDescTimeTakenAscIdAsc(Pageable pageable);
+    
+    // Per-level leaderboard backfill
+    @EntityGraph(attributePaths = "user")
+    List<MindloopScore> findByLevelOrderByScoreDescTimeTakenAscIdAsc(int level, Pageable pageable);
+    
+    // Levels that have at least one score
+    @Query("SELECT DISTINCT ms.level FROM MindloopScore ms")
+    List<Integer> findDistinctLevels();
+    
+    // Best scores played in [from, to), used to fill the daily leaderboard buckets
+    @EntityGraph(attributePaths = "user")
+    List<MindloopScore> findByPlayedAtGreaterThanEqualAndPlayedAtLessThanOrderByScoreDescTimeTakenAscIdAsc(
+        LocalDateTime from, LocalDateTime to, Pageable pageable);
+    
     // Count games played by user
     long countByUser(User user);
     
+    // Score a client already submitted under this dedup key
+    Optional<MindloopScore> findByUser_IdAndIdempotencyKey(Long userId, String idempotencyKey);
+    
+    // Count, total and best score of a user in one pass
+    @Query("SELECT COUNT(ms) AS games, SUM(ms.score) AS total, MAX(ms.score) AS best " +
+           "FROM MindloopScore ms WHERE ms.user.id = :userId")
+    ScoreAggregate aggregateByUserId(@Param("userId") Long userId);
+    
+    // Score histogram (score, count) used to seed the rank index
+    @Query("SELECT ms.score, COUNT(ms) FROM MindloopScore ms GROUP BY ms.score")
+    List<Object[]> countScoresByValue();
+    
     // Find scores by user and level
-    List<MindloopScore> findByUserAndLevelOrderByScoreDesc(User user, int level);
+    @Query("SELECT new com.games.repository.MindloopScoreRow(ms.id, ms.score, ms.level, ms.timeTaken, " +
+           "ms.correctAnswers, ms.totalQuestions, u.username) " +
+           "FROM MindloopScore ms JOIN ms.user u WHERE u.id = :userId AND ms.level = :level ORDER BY ms.score DESC")
+    List<MindloopScoreRow> findRowsByUserIdAndLevel(@Param("userId") Long userId, @Param("level") int level);
+    
+    // Full leaderboard, first keyset page
+    @Query("SELECT ms FROM MindloopScore ms JOIN FETCH ms.user u " +
+           "ORDER BY ms.score DESC, ms.timeTaken ASC, ms.id ASC")
+    List<MindloopScore> findLeaderboardFirstPage(Pageable pageable);
     
-    // Custom query for full leaderboard - updated to use playedAt
-    @Query("SELECT ms FROM MindloopScore ms ORDER BY ms.score DESC, ms.timeTaken ASC")
-    List<MindloopScore> findLeaderboard();
+    // Full leaderboard, every row ranked after the cursor (score DESC, timeTaken ASC, id ASC)
+    @Query("SELECT ms FROM MindloopScore ms JOIN FETCH ms.user u " +
+           "WHERE ms.score < :score " +
+           "OR (ms.score = :score AND (ms.timeTaken > :timeTaken " +
+           "OR (ms.timeTaken = :timeTaken AND ms.id > :id))) " +
+           "ORDER BY ms.score DESC, ms.timeTaken ASC, ms.id ASC")
+    List<MindloopScore> findLeaderboardAfter(@Param("score") int score,
+                                             @Param("timeTaken") int timeTaken,
+                                             @Param("id") long id,
+                                             Pageable pageable);
 }
\ No newline at end of file
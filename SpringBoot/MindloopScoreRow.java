@@ -0,0 +1,6 @@
+package com.games.repository;
+
+// One mindloop round as the score list endpoints return it; only the username is read from users
+public record MindloopScoreRow(Long id, int score, int level, int timeTaken,
+                               int correctAnswers, int totalQuestions, String username) {
+}
@@ -3,13 +3,20 @@ package com.games.service;
 import com.games.model.MindloopScore;
 import com.games.model.User;
 import com.games.repository.MindloopScoreRepository;
+import com.games.repository.MindloopScoreRow;
 import com.games.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 @Service
 public class MindloopScoreService {
@@ -19,92 +26,166 @@ public class MindloopScoreService {
     
     @Autowired
     private UserRepository userRepository;
+
+    @Autowired
+    private UserEntityCache userEntityCache;
+    
+    @Autowired
+    private LeaderboardIndex leaderboardIndex;
+    
+    @Autowired
+    private WindowedLeaderboardIndex windowedLeaderboardIndex;
+    
+    @Autowired
+    private LevelLeaderboardIndex levelLeaderboardIndex;
+    
+    @Autowired
+    private ScoreRankService scoreRankService;
+    
+    @Autowired
+    private UserStatsCache userStatsCache;
+    
+    @Autowired
+    private UserStatsAccumulator userStatsAccumulator;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
     
     @Transactional
     public MindloopScore saveScore(Long userId, int score, int level, int timeTaken, 
                                   int correctAnswers, int totalQuestions) {
-        Optional<User> userOpt = userRepository.findById(userId);
-        if (userOpt.isEmpty()) {
-            throw new RuntimeException("User not found with ID: " + userId);
+        return saveScores(List.of(new ScoreSubmission(
+            userId, score, level, timeTaken, correctAnswers, totalQuestions))).get(0);
+    }
+    
+    // Saves a run of rounds in one transaction: one atomic stats UPDATE per user (or none, when
+    // UserStatsAccumulator defers them), then the score inserts share a JDBC batch.
+    // Results come back in submission order.
+    @Transactional
+    public List<MindloopScore> saveScores(List<ScoreSubmission> submissions) {
+        // Sorted so concurrent runs lock user rows in the same order
+        Map<Long, UserStatsDelta> deltas = new TreeMap<>();
+        for (ScoreSubmission submission : submissions) {
+            deltas.computeIfAbsent(submission.getUserId(), id -> new UserStatsDelta()).add(submission);
+        }
+        if (!userStatsAccumulator.isDeferred()) {
+            for (Map.Entry<Long, UserStatsDelta> delta : deltas.entrySet()) {
+                if (!delta.getValue().applyTo(userRepository, userEntityCache, delta.getKey())) {
+                    throw new RuntimeException("User not found with ID: " + delta.getKey());
+                }
+            }
         }
         
-        User user = userOpt.get();
+        // Read back after the update so listeners see current stats
+        Map<Long, User> users = new HashMap<>();
+        for (User user : userRepository.findAllById(deltas.keySet())) {
+            users.put(user.getId(), user);
+        }
         
-        // Update user game statistics
-        user.updateGameStats(score, correctAnswers, timeTaken);
-        userRepository.save(user);
+        List<MindloopScore> scores = new ArrayList<>(submissions.size());
+        for (ScoreSubmission submission : submissions) {
+            User user = users.get(submission.getUserId());
+            if (user == null) {
+                throw new RuntimeException("User not found with ID: " + submission.getUserId());
+            }
+            
+            // Individual score record
+            MindloopScore score = new MindloopScore(user, submission.getScore(), submission.getLevel(), submission.getTimeTaken(),
+                submission.getCorrectAnswers(), submission.getTotalQuestions());
+            score.setIdempotencyKey(submission.getIdempotencyKey());
+            scores.add(score);
+        }
         
-        // Save individual score record
-        MindloopScore mindloopScore = new MindloopScore(
-            user, score, level, timeTaken, correctAnswers, totalQuestions
-        );
+        List<MindloopScore> saved = mindloopScoreRepository.saveAll(scores);
         
-        return mindloopScoreRepository.save(mindloopScore);
+        // Leaderboard read models pick these up once the transaction commits
+        for (MindloopScore score : saved) {
+            eventPublisher.publishEvent(new ScoreSavedEvent<>(score));
+        }
+        return saved;
     }
     
-    public List<MindloopScore> getUserScores(Long userId) {
-        Optional<User> user = userRepository.findById(userId);
-        if (user.isEmpty()) {
-            throw new RuntimeException("User not found with ID: " + userId);
-        }
-        return mindloopScoreRepository.findByUserOrderByScoreDesc(user.get());
+    // The score a user already submitted under this dedup key, if any
+    public Optional<MindloopScore> findByIdempotencyKey(Long userId, String idempotencyKey) {
+        return mindloopScoreRepository.findByUser_IdAndIdempotencyKey(userId, idempotencyKey);
+    }
+    
+    // Response rows straight from the query, no entities loaded
+    @Transactional(readOnly = true)
+    public List<MindloopScoreRow> getUserScores(Long userId) {
+        return mindloopScoreRepository.findRowsByUserId(userId);
     }
     
     public List<MindloopScore> getGlobalLeaderboard() {
-        return mindloopScoreRepository.findTop10ByOrderByScoreDesc();
+        return leaderboardIndex.mindloopTop();
+    }
+    
+    // Changes whenever getGlobalLeaderboard() may return something different
+    public long getGlobalLeaderboardVersion() {
+        return leaderboardIndex.mindloopVersion();
+    }
+    
+    public List<MindloopScore> getWindowLeaderboard(LeaderboardWindow window) {
+        return windowedLeaderboardIndex.mindloopTop(window);
+    }
+    
+    public List<MindloopScore> getLevelLeaderboard(int level) {
+        return levelLeaderboardIndex.mindloopTop(level);
+    }
+    
+    // Count / high / average in one cached lookup, one aggregate query on a miss
+    public UserScoreStats getUserStats(Long userId) {
+        return userStatsCache.mindloop(userId);
     }
     
     public Optional<Integer> getUserHighScore(Long userId) {
-        Optional<User> user = userRepository.findById(userId);
-        if (user.isEmpty()) {
-            return Optional.empty();
-        }
-        List<MindloopScore> userScores = mindloopScoreRepository.findByUserOrderByScoreDesc(user.get());
-        if (userScores.isEmpty()) {
-            return Optional.empty();
-        }
-        return Optional.of(userScores.get(0).getScore());
+        return getUserStats(userId).getHighScore();
     }
     
     public Optional<Double> getUserAverageScore(Long userId) {
-        Optional<User> user = userRepository.findById(userId);
-        if (user.isEmpty()) {
-            return Optional.empty();
-        }
-        List<MindloopScore> userScores = mindloopScoreRepository.findByUserOrderByScoreDesc(user.get());
-        if (userScores.isEmpty()) {
-            return Optional.empty();
-        }
-        double average = userScores.stream()
-            .mapToInt(MindloopScore::getScore)
-            .average()
-            .orElse(0.0);
-        return Optional.of(average);
+        return getUserStats(userId).getAverageScore();
+    }
+    
+    // Global rank of the user's best score; empty if they haven't played yet
+    public Optional<ScoreRank> getUserRank(Long userId) {
+        return getUserHighScore(userId).map(scoreRankService::mindloopRank);
     }
     
     public long getUserGamesPlayed(Long userId) {
-        Optional<User> user = userRepository.findById(userId);
-        if (user.isEmpty()) {
-            return 0L;
-        }
-        return mindloopScoreRepository.countByUser(user.get());
+        return getUserStats(userId).getGamesPlayed();
     }
     
-    public List<MindloopScore> getUserScoresByLevel(Long userId, int level) {
-        Optional<User> user = userRepository.findById(userId);
-        if (user.isEmpty()) {
-            throw new RuntimeException("User not found with ID: " + userId);
-        }
-        return mindloopScoreRepository.findByUserAndLevelOrderByScoreDesc(user.get(), level);
+    @Transactional(readOnly = true)
+    public List<MindloopScoreRow> getUserScoresByLevel(Long userId, int level) {
+        return mindloopScoreRepository.findRowsByUserIdAndLevel(userId, level);
     }
     
-    public List<MindloopScore> getFullLeaderboard() {
-        return mindloopScoreRepository.findLeaderboard();
+    // Full leaderboard one keyset page at a time; pass null for the first page
+    @Transactional(readOnly = true)
+    public LeaderboardPage<MindloopScore> getFullLeaderboard(String pageToken, int pageSize) {
+        PageRequest page = PageRequest.of(0, pageSize);
+        List<MindloopScore> rows;
+        if (pageToken == null || pageToken.isBlank()) {
+            rows = mindloopScoreRepository.findLeaderboardFirstPage(page);
+        } else {
+            LeaderboardCursor cursor = LeaderboardCursor.decode(pageToken);
+            rows = mindloopScoreRepository.findLeaderboardAfter(
+                cursor.getScore(), cursor.getTimeTaken(), cursor.getId(), page);
+        }
+        
+        String nextPageToken = null;
+        if (rows.size() == pageSize) {
+            MindloopScore last = rows.get(rows.size() - 1);
+            nextPageToken = new LeaderboardCursor(last.getScore(), last.getTimeTaken(), last.getId()).encode();
+        }
+        return new LeaderboardPage<>(rows, nextPageToken);
     }
     
     public boolean deleteScore(Long scoreId) {
-        if (mindloopScoreRepository.existsById(scoreId)) {
-            mindloopScoreRepository.deleteById(scoreId);
+        Optional<MindloopScore> existing = mindloopScoreRepository.findById(scoreId);
+        if (existing.isPresent()) {
+            mindloopScoreRepository.delete(existing.get());
+            eventPublisher.publishEvent(new ScoreDeletedEvent<>(existing.get()));
             return true;
         }
         return false;
@@ -0,0 +1,44 @@
+package com.games.service;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+// Walks a keyset-paginated source one page at a time, fetching the next page only when needed
+public class PagedIterator<T> implements Iterator<T> {
+
+    private final Function<String, LeaderboardPage<T>> fetch;
+
+    private List<T> current = List.of();
+    private int position;
+    private String nextPageToken;
+    private boolean started;
+
+    public PagedIterator(Function<String, LeaderboardPage<T>> fetch) {
+        this.fetch = fetch;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (position >= current.size()) {
+            if (started && nextPageToken == null) {
+                return false;
+            }
+            LeaderboardPage<T> page = fetch.apply(nextPageToken);
+            started = true;
+            current = page.getItems();
+            position = 0;
+            nextPageToken = page.getNextPageToken();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.get(position++);
+    }
+}
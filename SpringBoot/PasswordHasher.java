@@ -0,0 +1,172 @@
+package com.games.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Password hashing (PBKDF2-HMAC-SHA256) on its own small pool, so a login storm queues here
+// instead of pinning every request thread on CPU. The queue is bounded: when it's full callers
+// get IllegalStateException straight away (mapped to 503) rather than piling up.
+// The iteration count is playhive.password.iterations if set (the way to keep a cluster on one
+// cost), otherwise calibrated at startup to take about target-ms on this hardware and rounded
+// to a multiple of ITERATION_STEP, so restarts and similar nodes land on the same count despite
+// timing noise. The count is stored with each hash; a login only rehashes when the stored count
+// is clearly below the current one (REHASH_BELOW), not on every small difference between nodes.
+@Service
+public class PasswordHasher {
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX = "pbkdf2$";
+    private static final int SALT_BYTES = 16;
+    private static final int KEY_BITS = 256;
+    private static final int CALIBRATION_ITERATIONS = 20_000;
+    private static final int ITERATION_STEP = 50_000;
+    private static final double REHASH_BELOW = 0.8;
+
+    // Stored instead of a password for accounts nobody can log in to (e.g. auto-created players)
+    public static final String UNUSABLE_PREFIX = "!";
+
+    private final SecureRandom random = new SecureRandom();
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final int iterations;
+
+    public PasswordHasher(@Value("${playhive.password.threads:0}") int threads,
+                          @Value("${playhive.password.queue-capacity:64}") int queueCapacity,
+                          @Value("${playhive.password.timeout-ms:5000}") long timeoutMs,
+                          @Value("${playhive.password.target-ms:100}") long targetMs,
+                          @Value("${playhive.password.min-iterations:100000}") int minIterations,
+                          @Value("${playhive.password.iterations:0}") int fixedIterations) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "password-hasher-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.timeoutMs = timeoutMs;
+        this.iterations = fixedIterations > 0 ? fixedIterations : calibrate(targetMs, minIterations);
+        System.out.println("🔑 Password hashing: " + iterations + " iterations on " + poolSize + " threads");
+    }
+
+    public String hash(String rawPassword) {
+        return await(() -> {
+            byte[] salt = new byte[SALT_BYTES];
+            random.nextBytes(salt);
+            byte[] key = derive(rawPassword, salt, iterations);
+            return PREFIX + iterations + "$" + encode(salt) + "$" + encode(key);
+        });
+    }
+
+    public Verification verify(String rawPassword, String stored) {
+        if (stored == null || stored.startsWith(UNUSABLE_PREFIX)) {
+            return Verification.FAILED;
+        }
+        if (!stored.startsWith(PREFIX)) {
+            // Legacy plaintext row; matched in constant time, then rehashed by the caller
+            boolean matches = MessageDigest.isEqual(
+                stored.getBytes(StandardCharsets.UTF_8), rawPassword.getBytes(StandardCharsets.UTF_8));
+            return matches ? Verification.MATCHED_NEEDS_REHASH : Verification.FAILED;
+        }
+
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return Verification.FAILED;
+        }
+        int storedIterations = Integer.parseInt(parts[1]);
+        byte[] salt = Base64.getDecoder().decode(parts[2]);
+        byte[] expected = Base64.getDecoder().decode(parts[3]);
+        boolean matches = await(() -> MessageDigest.isEqual(expected, derive(rawPassword, salt, storedIterations)));
+        if (!matches) {
+            return Verification.FAILED;
+        }
+        return storedIterations < iterations * REHASH_BELOW ? Verification.MATCHED_NEEDS_REHASH : Verification.MATCHED;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T await(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("Too many logins in progress, try again shortly");
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new IllegalStateException("Too many logins in progress, try again shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Password hashing failed", e.getCause());
+        }
+    }
+
+    // Times a fixed number of rounds and scales linearly to the target (best of three runs),
+    // then rounds to the nearest ITERATION_STEP
+    private int calibrate(long targetMs, int minIterations) {
+        byte[] salt = new byte[SALT_BYTES];
+        long best = Long.MAX_VALUE;
+        try {
+            for (int run = 0; run < 3; run++) {
+                long start = System.nanoTime();
+                derive("calibration", salt, CALIBRATION_ITERATIONS);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        }
+        long scaled = CALIBRATION_ITERATIONS * TimeUnit.MILLISECONDS.toNanos(targetMs) / Math.max(1, best);
+        long rounded = (scaled + ITERATION_STEP / 2) / ITERATION_STEP * ITERATION_STEP;
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(minIterations, rounded));
+    }
+
+    private static byte[] derive(String rawPassword, byte[] salt, int iterations) throws GeneralSecurityException {
+        PBEKeySpec spec = new PBEKeySpec(rawPassword.toCharArray(), salt, iterations, KEY_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    public enum Verification {
+        MATCHED, MATCHED_NEEDS_REHASH, FAILED;
+
+        public boolean matches() {
+            return this != FAILED;
+        }
+    }
+}
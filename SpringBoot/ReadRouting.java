@@ -0,0 +1,22 @@
+package com.games.config;
+
+// Per-thread override of replica routing: set for a request whose user has just written,
+// so even its read-only transactions use the primary
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private ReadRouting() {}
+
+    public static void pinToPrimary() {
+        PRIMARY_ONLY.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        PRIMARY_ONLY.remove();
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PRIMARY_ONLY.get() != null;
+    }
+}
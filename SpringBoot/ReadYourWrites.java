@@ -0,0 +1,45 @@
+package com.games.service;
+
+import com.games.model.EmojiScore;
+import com.games.model.MindloopScore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+// Users who wrote recently. Their requests read from the primary, because the replica may not
+// have their write yet. The window is max-lag-ms plus one lag-check interval: the replica can
+// start lagging right after a probe and is only taken out of rotation at the next one, so
+// max-lag-ms alone would release writers onto a replica that is further behind than that.
+@Component
+public class ReadYourWrites {
+
+    private final LruCache<Long, Boolean> recentWriters;
+
+    public ReadYourWrites(@Value("${playhive.datasource.replica.max-lag-ms:2000}") long maxLagMs,
+                          @Value("${playhive.datasource.replica.lag-check-interval-ms:1000}") long lagCheckIntervalMs,
+                          @Value("${playhive.datasource.replica.max-sticky-users:100000}") int maxUsers) {
+        this.recentWriters = new LruCache<>(maxUsers, Duration.ofMillis(maxLagMs + lagCheckIntervalMs));
+    }
+
+    public void recordWrite(Long userId) {
+        if (userId != null) {
+            recentWriters.put(userId, Boolean.TRUE);
+        }
+    }
+
+    public boolean recentlyWrote(Long userId) {
+        return userId != null && recentWriters.get(userId) != null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmojiScoreSaved(ScoreSavedEvent<EmojiScore> event) {
+        recordWrite(event.getScore().getUser().getId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMindloopScoreSaved(ScoreSavedEvent<MindloopScore> event) {
+        recordWrite(event.getScore().getUser().getId());
+    }
+}
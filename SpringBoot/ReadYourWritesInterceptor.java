@@ -0,0 +1,97 @@
+package com.games.config;
+
+import com.games.repository.UserIdentity;
+import com.games.service.ReadYourWrites;
+import com.games.service.SessionUser;
+import com.games.service.UserDirectory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.concurrent.Callable;
+
+// Pins a request to the primary database when its user wrote within the replica lag bound,
+// so players always see the score they just submitted. The user is the session user, or for
+// the sessionless endpoints (Mindloop, the by-email routes) the ?email= or ?userId= parameter.
+// Streaming bodies (StreamingResponseBody, Callable) run on an async thread, so the pin is
+// carried over as a request attribute and re-applied there (registered in WebConfig).
+@Component
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor, CallableProcessingInterceptor {
+
+    private static final String PINNED_ATTRIBUTE = ReadYourWritesInterceptor.class.getName() + ".PINNED";
+
+    @Autowired
+    private SessionUserArgumentResolver sessionUserArgumentResolver;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Autowired
+    private UserDirectory userDirectory;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (readYourWrites.recentlyWrote(requestUserId(request))) {
+            ReadRouting.pinToPrimary();
+        }
+        return true;
+    }
+
+    private Long requestUserId(HttpServletRequest request) {
+        SessionUser user = sessionUserArgumentResolver.resolve(request);
+        if (user != null) {
+            return user.getId();
+        }
+        String userId = request.getParameter("userId");
+        if (userId != null) {
+            try {
+                return Long.valueOf(userId.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        String email = request.getParameter("email");
+        if (email != null && !email.isBlank()) {
+            // Same cached lookup the handler is about to do
+            return userDirectory.findByEmail(email).map(UserIdentity::getId).orElse(null);
+        }
+        return null;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReadRouting.clear();
+    }
+
+    // Async requests (streams, SSE) leave this thread without afterCompletion
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReadRouting.clear();
+    }
+
+    // Request thread, before the body is handed to the async executor
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        if (ReadRouting.isPinnedToPrimary()) {
+            request.setAttribute(PINNED_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    // Async thread, around the body
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        if (request.getAttribute(PINNED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) {
+            ReadRouting.pinToPrimary();
+        }
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        ReadRouting.clear();
+    }
+}
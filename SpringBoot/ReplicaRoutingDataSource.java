@@ -0,0 +1,103 @@
+package com.games.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+
+// Read-only transactions go to the replica, everything else to the primary. The replica is
+// skipped while its measured lag exceeds maxLagMs (or can't be measured), and for requests
+// pinned to the primary by ReadRouting. Must sit behind a LazyConnectionDataSourceProxy so the
+// connection is chosen after the transaction's read-only flag is known.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final long maxLagMs;
+
+    private volatile boolean replicaUsable = true;
+    private String lastLagError;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, String lagQuery, long maxLagMs) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLagMs = maxLagMs;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean readOnly = TransactionSynchronizationManager.isActualTransactionActive()
+            && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        return readOnly && replicaUsable && !ReadRouting.isPinnedToPrimary() ? REPLICA : PRIMARY;
+    }
+
+    // A lag query that can't run (bad SQL, no REPLICATION CLIENT grant, replica unreachable,
+    // pre-8.0.22 column names) would keep every read on the primary without anyone noticing,
+    // so it is run once here and startup fails if it doesn't work
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        if (lagQuery.isBlank()) {
+            return;
+        }
+        try {
+            replicaUsable = measureLag();
+        } catch (Exception e) {
+            throw new IllegalStateException("Replica lag query \"" + lagQuery + "\" failed: " + e.getMessage(), e);
+        }
+        System.out.println("🔁 Replica lag check working, replica " + (replicaUsable ? "in sync" : "lagging"));
+    }
+
+    // An empty lag query (e.g. a local embedded replica) trusts the replica unconditionally
+    @Scheduled(fixedDelayString = "${playhive.datasource.replica.lag-check-interval-ms:1000}")
+    public void checkReplicaLag() {
+        if (lagQuery.isBlank()) {
+            return;
+        }
+        boolean usable;
+        try {
+            usable = measureLag();
+            lastLagError = null;
+        } catch (Exception e) {
+            usable = false;
+            // Once per distinct error, not once per interval
+            String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            if (!error.equals(lastLagError)) {
+                System.err.println("❌ Replica lag check failed: " + error);
+                e.printStackTrace();
+            }
+            lastLagError = error;
+        }
+        if (usable != replicaUsable) {
+            System.out.println(usable ? "✅ Replica caught up, read-only traffic back on it"
+                                      : "⚠️ Replica lagging or unreachable, reading from primary");
+        }
+        replicaUsable = usable;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    private boolean measureLag() throws Exception {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet status = statement.executeQuery(lagQuery)) {
+            if (!status.next()) {
+                return true; // not replicating from anyone, nothing to lag behind
+            }
+            Object seconds = status.getObject("Seconds_Behind_Source");
+            return seconds != null && ((Number) seconds).longValue() * 1000 <= maxLagMs;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.games.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+// Ring of per-day top-K boards. A window read merges the boards of the days it covers;
+// a day falls out of the window simply by its slot being reused, so nothing is ever swept.
+public class RollingLeaderboard<T> {
+
+    private static final class DayBoard<T> {
+        final long epochDay;
+        final TopKBoard<T> board;
+
+        DayBoard(long epochDay, TopKBoard<T> board) {
+            this.epochDay = epochDay;
+            this.board = board;
+        }
+    }
+
+    private final int days;
+    private final int capacity;
+    private final Comparator<T> order;
+    private final Function<T, Long> idOf;
+    private final Function<T, LocalDate> dayOf;
+    // Loads the best rows of one day, best first, up to the given limit
+    private final BiFunction<LocalDate, Integer, List<T>> dayLoader;
+
+    private final AtomicReferenceArray<DayBoard<T>> ring;
+
+    public RollingLeaderboard(int days, int capacity, Comparator<T> order, Function<T, Long> idOf,
+                              Function<T, LocalDate> dayOf, BiFunction<LocalDate, Integer, List<T>> dayLoader) {
+        this.days = days;
+        this.capacity = capacity;
+        this.order = order;
+        this.idOf = idOf;
+        this.dayOf = dayOf;
+        this.dayLoader = dayLoader;
+        this.ring = new AtomicReferenceArray<>(days);
+    }
+
+    // Seed every day of the ring from the database
+    public void load(LocalDate today) {
+        for (int i = 0; i < days; i++) {
+            LocalDate day = today.minusDays(i);
+            boardFor(day.toEpochDay()).reset(dayLoader.apply(day, capacity));
+        }
+    }
+
+    public void offer(T entry, LocalDate today) {
+        LocalDate day = dayOf.apply(entry);
+        if (day == null || !inRing(day.toEpochDay(), today.toEpochDay())) {
+            return;
+        }
+        boardFor(day.toEpochDay()).offer(entry);
+    }
+
+    public void remove(T entry, int visible, LocalDate today) {
+        LocalDate day = dayOf.apply(entry);
+        if (day == null || !inRing(day.toEpochDay(), today.toEpochDay())) {
+            return;
+        }
+        DayBoard<T> slot = ring.get(slotOf(day.toEpochDay()));
+        if (slot == null || slot.epochDay != day.toEpochDay()) {
+            return;
+        }
+        if (slot.board.remove(idOf.apply(entry)) && slot.board.needsRefill(visible)) {
+            slot.board.reload(() -> dayLoader.apply(day, capacity));
+        }
+    }
+
+    // Best n entries over the last windowDays days, today included
+    public List<T> top(int windowDays, int n, LocalDate today) {
+        long todayEpoch = today.toEpochDay();
+        List<T> merged = new ArrayList<>();
+        for (int i = 0; i < Math.min(windowDays, days); i++) {
+            DayBoard<T> slot = ring.get(slotOf(todayEpoch - i));
+            if (slot != null && slot.epochDay == todayEpoch - i) {
+                merged.addAll(slot.board.top(n));
+            }
+        }
+        merged.sort(order);
+        return merged.size() <= n ? merged : new ArrayList<>(merged.subList(0, n));
+    }
+
+    private boolean inRing(long epochDay, long todayEpoch) {
+        return epochDay > todayEpoch - days && epochDay <= todayEpoch;
+    }
+
+    private int slotOf(long epochDay) {
+        return (int) Math.floorMod(epochDay, (long) days);
+    }
+
+    // Board for the given day, recycling the slot if it still holds an expired day
+    private TopKBoard<T> boardFor(long epochDay) {
+        int slot = slotOf(epochDay);
+        while (true) {
+            DayBoard<T> current = ring.get(slot);
+            if (current != null && current.epochDay == epochDay) {
+                return current.board;
+            }
+            if (current != null && current.epochDay > epochDay) {
+                // A newer day already owns the slot; hand back a throwaway board
+                return new TopKBoard<>(capacity, order, idOf);
+            }
+            DayBoard<T> fresh = new DayBoard<>(epochDay, new TopKBoard<>(capacity, order, idOf));
+            if (ring.compareAndSet(slot, current, fresh)) {
+                return fresh.board;
+            }
+        }
+    }
+}
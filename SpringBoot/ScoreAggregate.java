@@ -0,0 +1,8 @@
+package com.games.repository;
+
+// count / sum / max of one user's scores in one game, as returned by a single aggregate query
+public interface ScoreAggregate {
+    long getGames();
+    Long getTotal();
+    Integer getBest();
+}
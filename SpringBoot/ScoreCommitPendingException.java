@@ -0,0 +1,11 @@
+package com.games.service;
+
+// The submission is queued (or mid-write) but didn't commit within the sync timeout. Not a
+// failure: the writer still owns it and it may yet be saved, so controllers answer 202 and a
+// client retrying with the same idempotency key can't save it twice.
+public class ScoreCommitPendingException extends RuntimeException {
+
+    public ScoreCommitPendingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
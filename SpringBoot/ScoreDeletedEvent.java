@@ -0,0 +1,22 @@
+package com.games.service;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.ResolvableTypeProvider;
+
+// Published by the score services after a score row has been removed.
+// Carries the deleted entity so listeners can undo what they indexed for it.
+public class ScoreDeletedEvent<T> implements ResolvableTypeProvider {
+
+    private final T score;
+
+    public ScoreDeletedEvent(T score) {
+        this.score = score;
+    }
+
+    public T getScore() { return score; }
+
+    @Override
+    public ResolvableType getResolvableType() {
+        return ResolvableType.forClassWithGenerics(getClass(), ResolvableType.forInstance(score));
+    }
+}
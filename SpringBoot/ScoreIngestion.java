@@ -0,0 +1,348 @@
+package com.games.service;
+
+import com.games.model.EmojiScore;
+import com.games.model.MindloopScore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+// Write-behind score pipeline. Controllers enqueue a submission and either wait for its commit
+// (sync ack) or return as soon as it is queued (fire-and-forget). A single writer drains whatever
+// has piled up and saves it as one transaction per game, so the inserts go out as JDBC batches.
+// Submissions carrying an idempotency key are deduplicated: a retry gets the original's future.
+// Bulk uploads bypass the queue and are written in chunks on the caller's thread (saveBulk).
+@Component
+public class ScoreIngestion {
+
+    private static final long POLL_MS = 100;
+    private static final int MAX_KEY_LENGTH = 64;
+
+    @Autowired
+    private EmojiScoreService emojiScoreService;
+
+    @Autowired
+    private MindloopScoreService mindloopScoreService;
+
+    @Autowired
+    private ScoreLimits scoreLimits;
+
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final long syncTimeoutMs;
+    private final int bulkChunkSize;
+    private final int bulkMaxItems;
+
+    // "game:userId:key" -> the first submission's result, in flight or done
+    private final LruCache<String, CompletableFuture<Object>> recentKeys;
+
+    private volatile boolean running = true;
+    private Thread writer;
+
+    public ScoreIngestion(@Value("${playhive.ingest.queue-capacity:10000}") int queueCapacity,
+                          @Value("${playhive.ingest.batch-size:100}") int batchSize,
+                          @Value("${playhive.ingest.sync-timeout-ms:5000}") long syncTimeoutMs,
+                          @Value("${playhive.idempotency.max-keys:100000}") int maxKeys,
+                          @Value("${playhive.idempotency.ttl-minutes:15}") long keyTtlMinutes,
+                          @Value("${playhive.bulk.chunk-size:100}") int bulkChunkSize,
+                          @Value("${playhive.bulk.max-items:5000}") int bulkMaxItems) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.syncTimeoutMs = syncTimeoutMs;
+        this.recentKeys = new LruCache<>(maxKeys, Duration.ofMinutes(keyTtlMinutes));
+        this.bulkChunkSize = bulkChunkSize;
+        this.bulkMaxItems = bulkMaxItems;
+    }
+
+    @PostConstruct
+    public void start() {
+        writer = new Thread(this::drainLoop, "score-ingest-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Stop taking submissions, let the writer flush what is already queued
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        System.out.println("🛑 Score ingestion stopped, " + queue.size() + " submissions left unwritten");
+    }
+
+    // "async" means fire-and-forget; anything else waits for the commit
+    public static boolean isAsync(String ack) {
+        return "async".equalsIgnoreCase(ack);
+    }
+
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<EmojiScore> submitEmoji(ScoreSubmission submission) {
+        return (CompletableFuture<EmojiScore>) enqueue(GameType.EMOJI, submission);
+    }
+
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<MindloopScore> submitMindloop(ScoreSubmission submission) {
+        return (CompletableFuture<MindloopScore>) enqueue(GameType.MINDLOOP, submission);
+    }
+
+    // Blocks until the submission's batch commits; failures come back as RuntimeException,
+    // a commit still outstanding after syncTimeoutMs as ScoreCommitPendingException
+    public <T> T awaitCommit(CompletableFuture<T> pending) {
+        try {
+            return pending.get(syncTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ScoreCommitPendingException("Score accepted but not saved yet after " + syncTimeoutMs
+                + " ms; it may still be saved, retry with the same idempotency key to check", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting for score to be saved", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+        }
+    }
+
+    public int queuedCount() {
+        return queue.size();
+    }
+
+    // Offline sync: items are pulled lazily (e.g. straight off a JSON/NDJSON request body) and
+    // saved in chunks, one transaction and one stats update per user per chunk. toSubmission may
+    // throw IllegalArgumentException to reject a single item; a stream that breaks part way
+    // keeps the chunks already written and reports where it stopped.
+    public <T> BulkScoreResult saveBulk(GameType game, Iterator<T> items, Function<T, ScoreSubmission> toSubmission) {
+        BulkScoreResult result = new BulkScoreResult();
+        List<Pending> chunk = new ArrayList<>(bulkChunkSize);
+        List<Integer> positions = new ArrayList<>();
+        List<CompletableFuture<Object>> outcomes = new ArrayList<>();
+
+        int index = 0;
+        try {
+            while (items.hasNext()) {
+                if (index >= bulkMaxItems) {
+                    result.abort("Too many rounds, at most " + bulkMaxItems + " per request");
+                    break;
+                }
+                T item = items.next();
+                int position = index++;
+
+                Pending pending;
+                try {
+                    pending = new Pending(game, toSubmission.apply(item));
+                    scoreLimits.check(game, pending.submission);
+                    CompletableFuture<Object> original = claimKey(pending);
+                    positions.add(position);
+                    if (original != null) {
+                        outcomes.add(original);
+                        continue;
+                    }
+                } catch (IllegalArgumentException e) {
+                    result.failed(position, e.getMessage());
+                    continue;
+                }
+
+                outcomes.add(pending.result);
+                chunk.add(pending);
+                if (chunk.size() == bulkChunkSize) {
+                    write(chunk, game);
+                    chunk.clear();
+                }
+            }
+        } catch (RuntimeException e) {
+            result.abort("Unreadable round at index " + index + ": " + e.getMessage());
+        }
+        write(chunk, game);
+
+        for (int i = 0; i < outcomes.size(); i++) {
+            try {
+                result.saved(positions.get(i), idOf(awaitCommit(outcomes.get(i))));
+            } catch (ScoreCommitPendingException e) {
+                result.pending(positions.get(i), e.getMessage());
+            } catch (RuntimeException e) {
+                result.failed(positions.get(i), e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    // Never blocks the request thread; a full queue is reported as IllegalStateException,
+    // an out-of-range round or oversized idempotency key as IllegalArgumentException
+    private CompletableFuture<?> enqueue(GameType game, ScoreSubmission submission) {
+        scoreLimits.check(game, submission);
+        Pending pending = new Pending(game, submission);
+        CompletableFuture<Object> original = claimKey(pending);
+        if (original != null) {
+            return original;
+        }
+
+        if (!running || !queue.offer(pending)) {
+            pending.result.completeExceptionally(new IllegalStateException("Score queue is full, try again shortly"));
+            throw new IllegalStateException("Score queue is full, try again shortly");
+        }
+        return pending.result;
+    }
+
+    // Registers pending under its idempotency key; returns the original's result if the key
+    // was already taken, null if pending should be written
+    private CompletableFuture<Object> claimKey(Pending pending) {
+        String dedupKey = dedupKey(pending.game, pending.submission);
+        if (dedupKey == null) {
+            return null;
+        }
+        CompletableFuture<Object> original = recentKeys.putIfAbsent(dedupKey, pending.result);
+        if (original != null) {
+            return original;
+        }
+        // Failed attempts don't hold the key, the client's next retry should go through
+        pending.result.whenComplete((saved, error) -> {
+            if (error != null) {
+                recentKeys.remove(dedupKey, pending.result);
+            }
+        });
+        return null;
+    }
+
+    private static String dedupKey(GameType game, ScoreSubmission submission) {
+        String key = submission.getIdempotencyKey();
+        if (key == null) {
+            return null;
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("idempotencyKey must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        return game.getKey() + ":" + submission.getUserId() + ":" + key;
+    }
+
+    private void drainLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                System.out.println("❌ Score ingestion batch failed: " + e.getMessage());
+                for (Pending pending : batch) {
+                    pending.result.completeExceptionally(e);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        List<Pending> emoji = new ArrayList<>();
+        List<Pending> mindloop = new ArrayList<>();
+        for (Pending pending : batch) {
+            (pending.game == GameType.EMOJI ? emoji : mindloop).add(pending);
+        }
+        write(emoji, GameType.EMOJI);
+        write(mindloop, GameType.MINDLOOP);
+    }
+
+    // One transaction for the whole run; if it fails, retry row by row so one bad
+    // submission (e.g. a deleted user) doesn't take its neighbours down with it
+    private void write(List<Pending> run, GameType game) {
+        if (run.isEmpty()) {
+            return;
+        }
+        try {
+            complete(run, save(game, submissions(run)));
+        } catch (RuntimeException batchFailure) {
+            if (run.size() == 1) {
+                if (batchFailure instanceof DataIntegrityViolationException) {
+                    completeWithOriginal(run.get(0), game, (DataIntegrityViolationException) batchFailure);
+                } else {
+                    run.get(0).result.completeExceptionally(batchFailure);
+                }
+                return;
+            }
+            for (Pending pending : run) {
+                try {
+                    complete(List.of(pending), save(game, List.of(pending.submission)));
+                } catch (DataIntegrityViolationException e) {
+                    completeWithOriginal(pending, game, e);
+                } catch (RuntimeException e) {
+                    pending.result.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    // The key's unique index fired: a retry that missed recentKeys (evicted, or first seen on
+    // another node). Hand back the row the original attempt stored.
+    private void completeWithOriginal(Pending pending, GameType game, DataIntegrityViolationException violation) {
+        ScoreSubmission submission = pending.submission;
+        if (submission.getIdempotencyKey() == null) {
+            pending.result.completeExceptionally(violation);
+            return;
+        }
+        Optional<?> original = game == GameType.EMOJI
+            ? emojiScoreService.findByIdempotencyKey(submission.getUserId(), submission.getIdempotencyKey())
+            : mindloopScoreService.findByIdempotencyKey(submission.getUserId(), submission.getIdempotencyKey());
+        if (original.isPresent()) {
+            pending.result.complete(original.get());
+        } else {
+            pending.result.completeExceptionally(violation);
+        }
+    }
+
+    private List<?> save(GameType game, List<ScoreSubmission> submissions) {
+        return game == GameType.EMOJI
+            ? emojiScoreService.saveScores(submissions)
+            : mindloopScoreService.saveScores(submissions);
+    }
+
+    private static Long idOf(Object score) {
+        return score instanceof EmojiScore
+            ? ((EmojiScore) score).getId()
+            : ((MindloopScore) score).getId();
+    }
+
+    private static List<ScoreSubmission> submissions(List<Pending> run) {
+        List<ScoreSubmission> submissions = new ArrayList<>(run.size());
+        for (Pending pending : run) {
+            submissions.add(pending.submission);
+        }
+        return submissions;
+    }
+
+    private static void complete(List<Pending> run, List<?> saved) {
+        for (int i = 0; i < run.size(); i++) {
+            run.get(i).result.complete(saved.get(i));
+        }
+    }
+
+    private static final class Pending {
+        final GameType game;
+        final ScoreSubmission submission;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Pending(GameType game, ScoreSubmission submission) {
+            this.game = game;
+            this.submission = submission;
+        }
+    }
+}
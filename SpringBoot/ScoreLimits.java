@@ -0,0 +1,46 @@
+package com.games.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Plausible range of a submitted round, checked before anything is queued or indexed.
+// The in-memory indexes size themselves from these bounds, so a crafted submission can't
+// grow them (or land outside them and get a wrong rank). The level bound also caps how many
+// per-level boards LevelLeaderboardIndex can hold.
+@Component
+public class ScoreLimits {
+
+    private final int maxScore;
+    private final int emojiMaxLevel;
+    private final int mindloopMaxLevel;
+
+    public ScoreLimits(@Value("${playhive.scores.max-score:100000}") int maxScore,
+                       @Value("${playhive.scores.emoji.max-level:500}") int emojiMaxLevel,
+                       @Value("${playhive.scores.mindloop.max-level:500}") int mindloopMaxLevel) {
+        this.maxScore = maxScore;
+        this.emojiMaxLevel = emojiMaxLevel;
+        this.mindloopMaxLevel = mindloopMaxLevel;
+    }
+
+    public int getMaxScore() {
+        return maxScore;
+    }
+
+    public int maxLevel(GameType game) {
+        return game == GameType.EMOJI ? emojiMaxLevel : mindloopMaxLevel;
+    }
+
+    public boolean isValidLevel(GameType game, int level) {
+        return level >= 1 && level <= maxLevel(game);
+    }
+
+    // IllegalArgumentException (a 400 at the controllers) for a round outside the bounds
+    public void check(GameType game, ScoreSubmission submission) {
+        if (submission.getScore() < 0 || submission.getScore() > maxScore) {
+            throw new IllegalArgumentException("score must be between 0 and " + maxScore);
+        }
+        if (!isValidLevel(game, submission.getLevel())) {
+            throw new IllegalArgumentException("level must be between 1 and " + maxLevel(game));
+        }
+    }
+}
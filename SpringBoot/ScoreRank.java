@@ -0,0 +1,25 @@
+package com.games.service;
+
+// Where a score stands among every score recorded for a game
+public class ScoreRank {
+
+    private final int score;
+    private final long rank;
+    private final long totalScores;
+    private final double percentile;
+
+    public ScoreRank(int score, long scoresAbove, long totalScores) {
+        this.score = score;
+        this.rank = scoresAbove + 1;
+        this.totalScores = totalScores;
+        // Share of recorded scores this one equals or beats
+        this.percentile = totalScores > 0
+            ? Math.round((double) (totalScores - scoresAbove) / totalScores * 10000) / 100.0
+            : 0.0;
+    }
+
+    public int getScore() { return score; }
+    public long getRank() { return rank; }
+    public long getTotalScores() { return totalScores; }
+    public double getPercentile() { return percentile; }
+}
@@ -0,0 +1,77 @@
+package com.games.service;
+
+import com.games.model.EmojiScore;
+import com.games.model.MindloopScore;
+import com.games.repository.EmojiScoreRepository;
+import com.games.repository.MindloopScoreRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+// Global rank/percentile per game, answered from a score histogram kept in memory.
+// Loaded once from a GROUP BY at startup, then fed by committed saves and deletes.
+@Service
+public class ScoreRankService {
+
+    @Autowired
+    private EmojiScoreRepository emojiScoreRepository;
+
+    @Autowired
+    private MindloopScoreRepository mindloopScoreRepository;
+
+    private final ScoreRankTree emojiTree;
+    private final ScoreRankTree mindloopTree;
+
+    // Trees never grow past the highest score a submission may carry
+    public ScoreRankService(ScoreLimits scoreLimits) {
+        this.emojiTree = new ScoreRankTree(1024, scoreLimits.getMaxScore());
+        this.mindloopTree = new ScoreRankTree(1024, scoreLimits.getMaxScore());
+    }
+
+    @PostConstruct
+    public void load() {
+        fill(emojiTree, emojiScoreRepository.countScoresByValue());
+        fill(mindloopTree, mindloopScoreRepository.countScoresByValue());
+
+        System.out.println("📈 Rank index loaded: emoji=" + emojiTree.total()
+            + ", mindloop=" + mindloopTree.total());
+    }
+
+    public ScoreRank emojiRank(int score) {
+        return emojiTree.rankOf(score);
+    }
+
+    public ScoreRank mindloopRank(int score) {
+        return mindloopTree.rankOf(score);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmojiScoreSaved(ScoreSavedEvent<EmojiScore> event) {
+        emojiTree.add(event.getScore().getScore(), 1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmojiScoreDeleted(ScoreDeletedEvent<EmojiScore> event) {
+        emojiTree.add(event.getScore().getScore(), -1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMindloopScoreSaved(ScoreSavedEvent<MindloopScore> event) {
+        mindloopTree.add(event.getScore().getScore(), 1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMindloopScoreDeleted(ScoreDeletedEvent<MindloopScore> event) {
+        mindloopTree.add(event.getScore().getScore(), -1);
+    }
+
+    private void fill(ScoreRankTree tree, List<Object[]> histogram) {
+        tree.clear();
+        for (Object[] row : histogram) {
+            tree.add(((Number) row[0]).intValue(), ((Number) row[1]).longValue());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.games.service;
+
+import java.util.Arrays;
+
+// Fenwick tree of score counts, one bucket per score point.
+// Answers "how many scores beat this one" in O(log maxScore).
+public class ScoreRankTree {
+
+    // Scores above this share the top bucket. Submissions are bounded by ScoreLimits, so only
+    // rows stored before that check can land here.
+    private final int maxBucket;
+
+    private long[] counts;
+    private long[] tree;
+    private long total;
+
+    public ScoreRankTree(int initialBuckets, int maxBucket) {
+        this.maxBucket = maxBucket;
+        int size = Integer.highestOneBit(Math.max(initialBuckets, 16) - 1) << 1;
+        this.counts = new long[size];
+        this.tree = new long[size + 1];
+    }
+
+    public synchronized void add(int score, long delta) {
+        int bucket = bucketOf(score);
+        ensureCapacity(bucket);
+        counts[bucket] += delta;
+        for (int i = bucket + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+        total += delta;
+    }
+
+    // Number of recorded scores strictly greater than the given score
+    public synchronized long countAbove(int score) {
+        return total - countAtOrBelow(bucketOf(score));
+    }
+
+    public synchronized ScoreRank rankOf(int score) {
+        return new ScoreRank(score, countAbove(score), total);
+    }
+
+    public synchronized long total() {
+        return total;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(counts, 0L);
+        Arrays.fill(tree, 0L);
+        total = 0;
+    }
+
+    private long countAtOrBelow(int bucket) {
+        long sum = 0;
+        for (int i = Math.min(bucket + 1, tree.length - 1); i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private void ensureCapacity(int bucket) {
+        if (bucket < counts.length) {
+            return;
+        }
+        int size = counts.length;
+        while (size <= bucket) {
+            size <<= 1;
+        }
+        long[] grown = new long[size];
+        System.arraycopy(counts, 0, grown, 0, counts.length);
+        counts = grown;
+
+        // Linear Fenwick build from the point counts
+        tree = new long[size + 1];
+        for (int i = 1; i <= size; i++) {
+            tree[i] += counts[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= size) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    private int bucketOf(int score) {
+        return Math.max(0, Math.min(score, maxBucket));
+    }
+}
@@ -0,0 +1,23 @@
+package com.games.service;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.ResolvableTypeProvider;
+
+// Published by the score services once a score row has been written.
+// Listeners receive it after the surrounding transaction commits.
+public class ScoreSavedEvent<T> implements ResolvableTypeProvider {
+
+    private final T score;
+
+    public ScoreSavedEvent(T score) {
+        this.score = score;
+    }
+
+    public T getScore() { return score; }
+
+    // Lets listeners subscribe to ScoreSavedEvent<EmojiScore> etc. directly
+    @Override
+    public ResolvableType getResolvableType() {
+        return ResolvableType.forClassWithGenerics(getClass(), ResolvableType.forInstance(score));
+    }
+}
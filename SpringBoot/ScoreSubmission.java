@@ -0,0 +1,38 @@
+package com.games.service;
+
+// One round to be recorded for a user; the unit the write-behind queue and batch saves work on
+public class ScoreSubmission {
+
+    private final Long userId;
+    private final int score;
+    private final int level;
+    private final int timeTaken;
+    private final int correctAnswers;
+    private final int totalQuestions;
+    private final String idempotencyKey;
+
+    public ScoreSubmission(Long userId, int score, int level, int timeTaken,
+                           int correctAnswers, int totalQuestions) {
+        this(userId, score, level, timeTaken, correctAnswers, totalQuestions, null);
+    }
+
+    // idempotencyKey is the client's dedup key for retries, null if it didn't send one
+    public ScoreSubmission(Long userId, int score, int level, int timeTaken,
+                           int correctAnswers, int totalQuestions, String idempotencyKey) {
+        this.userId = userId;
+        this.score = score;
+        this.level = level;
+        this.timeTaken = timeTaken;
+        this.correctAnswers = correctAnswers;
+        this.totalQuestions = totalQuestions;
+        this.idempotencyKey = idempotencyKey == null || idempotencyKey.isBlank() ? null : idempotencyKey.trim();
+    }
+
+    public Long getUserId() { return userId; }
+    public int getScore() { return score; }
+    public int getLevel() { return level; }
+    public int getTimeTaken() { return timeTaken; }
+    public int getCorrectAnswers() { return correctAnswers; }
+    public int getTotalQuestions() { return totalQuestions; }
+    public String getIdempotencyKey() { return idempotencyKey; }
+}
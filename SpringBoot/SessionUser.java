@@ -0,0 +1,33 @@
+package com.games.service;
+
+import com.games.model.User;
+
+import java.io.Serializable;
+
+// What the session (or a signed token) holds for a logged-in player: a few immutable fields
+// instead of the whole User entity with its password columns and lazy score collection.
+// A profile edit replaces the session copy (and hands out a new token), see updateUser.
+public final class SessionUser implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String SESSION_ATTRIBUTE = "loggedInUser";
+
+    private final Long id;
+    private final String username;
+    private final String email;
+
+    public SessionUser(Long id, String username, String email) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+    }
+
+    public static SessionUser from(User user) {
+        return new SessionUser(user.getId(), user.getUsername(), user.getEmail());
+    }
+
+    public Long getId() { return id; }
+    public String getUsername() { return username; }
+    public String getEmail() { return email; }
+}
@@ -0,0 +1,52 @@
+package com.games.config;
+
+import com.games.service.AuthTokenService;
+import com.games.service.SessionUser;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+// Injects the logged-in SessionUser into controller methods (null when not logged in).
+// A bearer token wins when present; otherwise the existing session is consulted without
+// creating one, so anonymous and token-authenticated requests stay sessionless.
+@Component
+public class SessionUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private static final String BEARER = "Bearer ";
+
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return SessionUser.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        return request != null ? resolve(request) : null;
+    }
+
+    public SessionUser resolve(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.startsWith(BEARER)) {
+            return authTokenService.verify(authorization.substring(BEARER.length()).trim()).orElse(null);
+        }
+
+        HttpSession session = request.getSession(false);
+        if (session == null) {
+            return null;
+        }
+        Object principal = session.getAttribute(SessionUser.SESSION_ATTRIBUTE);
+        return principal instanceof SessionUser user ? user : null;
+    }
+}
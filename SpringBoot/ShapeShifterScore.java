@@ -8,7 +8,8 @@ import java.time.LocalDateTime;
 public class ShapeShifterScore {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shape_shifter_scores_seq")
+    @SequenceGenerator(name = "shape_shifter_scores_seq", sequenceName = "shape_shifter_scores_seq", allocationSize = 50)
     private Long id;
 
     private String username;
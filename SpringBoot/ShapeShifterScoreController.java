@@ -1,10 +1,25 @@
 package com.games.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.games.model.ShapeShifterScore;
 import com.games.service.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/shapeshifter")
@@ -14,14 +29,54 @@ public class ShapeShifterScoreController {
     @Autowired
     private ShapeShifterScoreService service;
 
+    @Autowired
+    private LeaderboardBroadcaster leaderboardBroadcaster;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping("/save")
     public ShapeShifterScore saveScore(@RequestBody ShapeShifterScore score) {
         return service.saveScore(score);
     }
 
+    // Keyset-paginated: pass the previous page's nextPageToken to continue
     @GetMapping("/scores")
-    public List<ShapeShifterScore> getAllScores() {
-        return service.getAllScores();
+    public ResponseEntity<?> getAllScores(@RequestParam(required = false) String pageToken,
+                                          @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(service.getAllScores(pageToken, LeaderboardCursor.clampPageSize(size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Whole table as ndjson (default), json or csv, written row by row from a streaming cursor
+    @GetMapping("/scores/export")
+    public ResponseEntity<?> exportScores(@RequestParam(defaultValue = "ndjson") String format) {
+        StreamingResponseBody body;
+        MediaType contentType;
+        switch (format.toLowerCase()) {
+            case "ndjson" -> {
+                contentType = MediaType.parseMediaType("application/x-ndjson");
+                body = this::writeNdjson;
+            }
+            case "json" -> {
+                contentType = MediaType.APPLICATION_JSON;
+                body = this::writeJsonArray;
+            }
+            case "csv" -> {
+                contentType = MediaType.parseMediaType("text/csv");
+                body = this::writeCsv;
+            }
+            default -> {
+                return ResponseEntity.badRequest().body(Map.of("error", "Unknown export format: " + format));
+            }
+        }
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"shapeshifter-scores." + format.toLowerCase() + "\"")
+                .body(body);
     }
 
     @GetMapping("/top")
@@ -29,6 +84,17 @@ public class ShapeShifterScoreController {
         return service.getTopScores();
     }
 
+    // SSE: one "snapshot" event, then a "diff" whenever the top 10 changes
+    @GetMapping(value = "/top/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter liveTopScores() {
+        return leaderboardBroadcaster.subscribe(GameType.SHAPESHIFTER);
+    }
+
+    @GetMapping("/top/{window:daily|weekly|monthly}")
+    public List<ShapeShifterScore> getWindowTopScores(@PathVariable String window) {
+        return service.getWindowTopScores(LeaderboardWindow.fromPath(window));
+    }
+
     @GetMapping("/user/{username}")
     public List<ShapeShifterScore> getUserScores(@PathVariable String username) {
         return service.getUserScores(username);
@@ -38,4 +104,63 @@ public class ShapeShifterScoreController {
     public void deleteScore(@PathVariable Long id) {
         service.deleteScore(id);
     }
+
+    private void writeNdjson(OutputStream out) throws IOException {
+        try {
+            service.forEachScore(score -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(score));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeJsonArray(OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartArray();
+            service.forEachScore(score -> {
+                try {
+                    json.writeObject(score);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            json.writeEndArray();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeCsv(OutputStream out) throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        csv.write("id,username,level,score,streak,createdAt\n");
+        try {
+            service.forEachScore(score -> {
+                try {
+                    csv.write(score.getId() + "," + csvField(score.getUsername()) + "," + score.getLevel() + ","
+                        + score.getScore() + "," + score.getStreak() + "," + score.getCreatedAt() + "\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        csv.flush();
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
 }
\ No newline at end of file
@@ -1,12 +1,41 @@
 package com.games.repository;
 
 import com.games.model.ShapeShifterScore;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ShapeShifterScoreRepository extends JpaRepository<ShapeShifterScore, Long> {
     List<ShapeShifterScore> findByUsernameOrderByCreatedAtDesc(String username);
     List<ShapeShifterScore> findTop10ByOrderByScoreDesc();
+    List<ShapeShifterScore> findByOrderByScoreDescIdAsc(Pageable pageable);
+
+    // Keyset pages of the whole table in id order
+    List<ShapeShifterScore> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+    // Forward-only cursor over the whole table. Integer.MIN_VALUE is MySQL Connector/J's signal to
+    // stream rows one at a time instead of buffering the result set; needs an open transaction.
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT s FROM ShapeShifterScore s ORDER BY s.id")
+    Stream<ShapeShifterScore> streamAllOrderById();
+
+    @Query("SELECT s FROM ShapeShifterScore s " +
+           "WHERE s.score < :score OR (s.score = :score AND s.id > :id) " +
+           "ORDER BY s.score DESC, s.id ASC")
+    List<ShapeShifterScore> findLeaderboardAfter(@Param("score") int score, @Param("id") long id, Pageable pageable);
+    List<ShapeShifterScore> findByCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByScoreDescIdAsc(
+        LocalDateTime from, LocalDateTime to, Pageable pageable);
 }
\ No newline at end of file
@@ -2,9 +2,16 @@ package com.games.service;
 
 import com.games.model.ShapeShifterScore;
 import com.games.repository.ShapeShifterScoreRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class ShapeShifterScoreService {
@@ -12,23 +19,90 @@ public class ShapeShifterScoreService {
     @Autowired
     private ShapeShifterScoreRepository repository;
 
+    @Autowired
+    private LeaderboardIndex leaderboardIndex;
+
+    @Autowired
+    private WindowedLeaderboardIndex windowedLeaderboardIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     public ShapeShifterScore saveScore(ShapeShifterScore score) {
-        return repository.save(score);
+        ShapeShifterScore saved = repository.save(score);
+        eventPublisher.publishEvent(new ScoreSavedEvent<>(saved));
+        return saved;
     }
 
-    public List<ShapeShifterScore> getAllScores() {
-        return repository.findAll();
+    // Keyset page of all scores in id order; the token is the last id of the previous page
+    @Transactional(readOnly = true)
+    public LeaderboardPage<ShapeShifterScore> getAllScores(String pageToken, int pageSize) {
+        long afterId = 0;
+        if (pageToken != null && !pageToken.isBlank()) {
+            try {
+                afterId = Long.parseLong(pageToken);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid page token");
+            }
+        }
+        List<ShapeShifterScore> rows = repository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, pageSize));
+
+        String nextPageToken = rows.size() == pageSize ? String.valueOf(rows.get(rows.size() - 1).getId()) : null;
+        return new LeaderboardPage<>(rows, nextPageToken);
+    }
+
+    // Hands every score to the sink, in id order, from one streaming cursor. Each row is detached
+    // once the sink is done with it, so memory stays flat however large the table gets.
+    @Transactional(readOnly = true)
+    public void forEachScore(Consumer<ShapeShifterScore> sink) {
+        try (Stream<ShapeShifterScore> scores = repository.streamAllOrderById()) {
+            scores.forEach(score -> {
+                sink.accept(score);
+                entityManager.detach(score);
+            });
+        }
     }
 
     public List<ShapeShifterScore> getTopScores() {
-        return repository.findTop10ByOrderByScoreDesc();
+        return leaderboardIndex.shapeShifterTop();
+    }
+
+    public List<ShapeShifterScore> getWindowTopScores(LeaderboardWindow window) {
+        return windowedLeaderboardIndex.shapeShifterTop(window);
+    }
+
+    // Keyset page over (score DESC, id ASC); ShapeShifter has no time component
+    @Transactional(readOnly = true)
+    public LeaderboardPage<ShapeShifterScore> getLeaderboardPage(String pageToken, int pageSize) {
+        PageRequest page = PageRequest.of(0, pageSize);
+        List<ShapeShifterScore> rows;
+        if (pageToken == null || pageToken.isBlank()) {
+            rows = repository.findByOrderByScoreDescIdAsc(page);
+        } else {
+            LeaderboardCursor cursor = LeaderboardCursor.decode(pageToken);
+            rows = repository.findLeaderboardAfter(cursor.getScore(), cursor.getId(), page);
+        }
+
+        String nextPageToken = null;
+        if (rows.size() == pageSize) {
+            ShapeShifterScore last = rows.get(rows.size() - 1);
+            nextPageToken = new LeaderboardCursor(last.getScore(), 0, last.getId()).encode();
+        }
+        return new LeaderboardPage<>(rows, nextPageToken);
     }
 
+    @Transactional(readOnly = true)
     public List<ShapeShifterScore> getUserScores(String username) {
         return repository.findByUsernameOrderByCreatedAtDesc(username);
     }
 
     public void deleteScore(Long id) {
-        repository.deleteById(id);
+        repository.findById(id).ifPresent(score -> {
+            repository.delete(score);
+            eventPublisher.publishEvent(new ScoreDeletedEvent<>(score));
+        });
     }
 }
\ No newline at end of file
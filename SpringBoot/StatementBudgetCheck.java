@@ -0,0 +1,100 @@
+package com.games.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// playhive.jpa.check-statement-budgets=true: once the app is up, call each read endpoint that
+// renders score -> user associations over HTTP, one at a time, with Hibernate statistics reset
+// before each, and fail startup if one prepares more statements than its budget (or errors,
+// e.g. a LazyInitializationException). An N+1 on the now-LAZY user shows up as one statement
+// per row. Meant for CI / staging against a seeded database with no other traffic: the
+// statistics are global, so concurrent requests or scheduled jobs would be counted too.
+// Budgets are ceilings; a board already held in memory answers with fewer.
+@Component
+@ConditionalOnProperty(name = "playhive.jpa.check-statement-budgets", havingValue = "true")
+public class StatementBudgetCheck {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Environment environment;
+
+    // Path -> most JDBC statements Hibernate may prepare to answer it
+    private static Map<String, Long> budgets(String email) {
+        Map<String, Long> budgets = new LinkedHashMap<>();
+        for (String game : List.of("emoji", "mindloop")) {
+            String base = "/api/" + game;
+            budgets.put(base + "/leaderboard", 2L);
+            for (String window : List.of("daily", "weekly", "monthly")) {
+                budgets.put(base + "/leaderboard/" + window, 2L);
+            }
+            budgets.put(base + "/leaderboard/level/1", 2L);
+            budgets.put(base + "/leaderboard/full", 2L);
+            if (email != null) {
+                // email -> user, then the projected score rows
+                budgets.put(base + "/scores-by-email?email=" + URLEncoder.encode(email, StandardCharsets.UTF_8), 2L);
+            }
+        }
+        budgets.put("/api/champions", 3L);
+        return budgets;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() throws IOException, InterruptedException {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            throw new IllegalStateException("Statement budgets need Hibernate statistics (playhive.jpa.statistics=true)");
+        }
+
+        // Plain JDBC, not counted by Hibernate
+        List<String> emails = jdbcTemplate.queryForList("SELECT email FROM users ORDER BY id LIMIT 1", String.class);
+        Map<String, Long> budgets = budgets(emails.isEmpty() ? null : emails.get(0));
+
+        HttpClient client = HttpClient.newHttpClient();
+        String root = "http://localhost:" + environment.getProperty("local.server.port");
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, Long> budget : budgets.entrySet()) {
+            statistics.clear();
+            HttpResponse<Void> response = client.send(
+                HttpRequest.newBuilder(URI.create(root + budget.getKey())).GET().build(),
+                HttpResponse.BodyHandlers.discarding());
+            long statements = statistics.getPrepareStatementCount();
+
+            if (response.statusCode() >= 400) {
+                failures.add(budget.getKey() + "\n   answered " + response.statusCode());
+            } else if (statements > budget.getValue()) {
+                failures.add(budget.getKey() + "\n   prepared " + statements + " statements, budget " + budget.getValue());
+            } else {
+                System.out.println("📊 " + budget.getKey() + ": " + statements + "/" + budget.getValue() + " statements");
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Endpoints over their statement budget:\n - " + String.join("\n - ", failures));
+        }
+        System.out.println("✅ Statement budgets checked, " + budgets.size() + " endpoints within budget");
+    }
+}
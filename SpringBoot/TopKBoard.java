@@ -0,0 +1,225 @@
+package com.games.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Bounded, always-sorted set of the best entries of a board.
+// Writers are serialized; readers only see an immutable snapshot and never block.
+// Mutations report whether the first `visible` rows changed, decided under the same lock,
+// so concurrent writers can't both (or neither) see a change.
+public class TopKBoard<T> {
+
+    private final int capacity;
+    private final int visible;
+    private final Comparator<T> order;
+    private final Function<T, Long> idOf;
+
+    private final TreeSet<T> entries;
+    private final Map<Long, T> byId = new HashMap<>();
+
+    // True when rows exist that ranked below the last entry we kept
+    private boolean truncated;
+
+    // Offers/removals that arrived while a reload query was running, re-applied on top of its rows
+    private int reloadsInFlight;
+    private List<Change<T>> replay;
+
+    private volatile List<T> snapshot = Collections.emptyList();
+    // Bumped after every snapshot swap, so anything derived from a snapshot can be cached by it
+    private volatile long version;
+
+    public TopKBoard(int capacity, Comparator<T> order, Function<T, Long> idOf) {
+        this(capacity, capacity, order, idOf);
+    }
+
+    public TopKBoard(int capacity, int visible, Comparator<T> order, Function<T, Long> idOf) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Board capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.visible = Math.min(visible, capacity);
+        this.order = order;
+        this.idOf = idOf;
+        this.entries = new TreeSet<>(order);
+    }
+
+    // Replace the whole board with rows already sorted best-first
+    public synchronized void reset(List<T> rows) {
+        fill(rows);
+        publish();
+    }
+
+    // Replace the board with what the loader returns (sorted best-first). The loader runs outside
+    // the lock; writes committed meanwhile are replayed over its rows so none are lost.
+    // Returns true if the visible rows changed.
+    public boolean reload(Supplier<List<T>> loader) {
+        synchronized (this) {
+            if (reloadsInFlight++ == 0) {
+                replay = new ArrayList<>();
+            }
+        }
+        List<T> rows;
+        try {
+            rows = loader.get();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                endReload();
+            }
+            throw e;
+        }
+        synchronized (this) {
+            List<Change<T>> missed = replay;
+            endReload();
+            List<T> before = top(visible);
+            fill(rows);
+            for (Change<T> change : missed) {
+                if (change.entry() != null) {
+                    place(change.entry());
+                } else {
+                    take(change.removedId());
+                }
+            }
+            publish();
+            return visibleChanged(before);
+        }
+    }
+
+    // Returns true if the visible rows changed
+    public synchronized boolean offer(T entry) {
+        if (replay != null) {
+            replay.add(new Change<>(entry, null));
+        }
+        List<T> before = top(visible);
+        if (place(entry)) {
+            publish();
+        }
+        return visibleChanged(before);
+    }
+
+    // Returns true if the entry was on the board
+    public synchronized boolean remove(Long id) {
+        if (replay != null) {
+            replay.add(new Change<>(null, id));
+        }
+        if (!take(id)) {
+            return false;
+        }
+        publish();
+        return true;
+    }
+
+    // Removes the entry, reloading through the loader if the board ran out of backfill rows.
+    // Returns true if the visible rows changed.
+    public boolean remove(Long id, Supplier<List<T>> loader) {
+        List<T> before;
+        synchronized (this) {
+            before = top(visible);
+            if (!remove(id)) {
+                return false;
+            }
+            if (!needsRefill(visible)) {
+                return visibleChanged(before);
+            }
+        }
+        reload(loader);
+        synchronized (this) {
+            return visibleChanged(before);
+        }
+    }
+
+    // The board can no longer answer a top-n read on its own and must be reloaded
+    public synchronized boolean needsRefill(int n) {
+        return truncated && entries.size() < Math.min(n, capacity);
+    }
+
+    public List<T> top(int n) {
+        List<T> current = snapshot;
+        return current.size() <= n ? current : current.subList(0, n);
+    }
+
+    public int capacity() { return capacity; }
+
+    public int size() { return snapshot.size(); }
+
+    // Read before top(): the snapshot seen afterwards is at least this new
+    public long version() { return version; }
+
+    private void endReload() {
+        if (--reloadsInFlight == 0) {
+            replay = null;
+        }
+    }
+
+    private void fill(List<T> rows) {
+        entries.clear();
+        byId.clear();
+        for (T row : rows) {
+            if (entries.size() == capacity) {
+                break;
+            }
+            entries.add(row);
+            byId.put(idOf.apply(row), row);
+        }
+        truncated = rows.size() >= capacity;
+    }
+
+    // Returns true if the board content changed
+    private boolean place(T entry) {
+        Long id = idOf.apply(entry);
+        T previous = byId.remove(id);
+        if (previous != null) {
+            entries.remove(previous);
+        }
+
+        if (entries.size() == capacity && order.compare(entry, entries.last()) >= 0) {
+            truncated = true;
+            return previous != null;
+        }
+
+        entries.add(entry);
+        byId.put(id, entry);
+        if (entries.size() > capacity) {
+            T evicted = entries.pollLast();
+            byId.remove(idOf.apply(evicted));
+            truncated = true;
+        }
+        return true;
+    }
+
+    private boolean take(Long id) {
+        T existing = byId.remove(id);
+        if (existing == null) {
+            return false;
+        }
+        entries.remove(existing);
+        return true;
+    }
+
+    // Boards hold a new object whenever a row changes, so identity is enough
+    private boolean visibleChanged(List<T> before) {
+        List<T> after = top(visible);
+        if (before.size() != after.size()) {
+            return true;
+        }
+        for (int i = 0; i < after.size(); i++) {
+            if (before.get(i) != after.get(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void publish() {
+        snapshot = Collections.unmodifiableList(new ArrayList<>(entries));
+        version++;
+    }
+
+    private record Change<T>(T entry, Long removedId) {}
+}
@@ -1,6 +1,11 @@
 package com.games.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import java.time.LocalDateTime;
 import java.util.Objects;
 import java.util.ArrayList;
@@ -8,6 +13,12 @@ import java.util.List;
 
 @Entity
 @Table(name = "users")
+// Second-level cached when playhive.jpa.cache.enabled (JpaCacheConfig). Stat, profile and password
+// updates are native UPDATEs that bypass the cache (UserRepository), so UserEntityCache evicts just
+// the updated user, and on profile saves the old and new email natural ids, after them.
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-by-email")
 public class User {
 
     @Id
@@ -18,6 +29,7 @@ public class User {
     @Column(nullable = false, unique = true)
     private String username;
 
+    @NaturalId(mutable = true)
     @Column(nullable = false, unique = true)
     private String email;
 
@@ -74,6 +86,8 @@ public class User {
     private Status status = Status.ACTIVE;
 
     // Relationship with EmojiScore (One-to-Many)
+    // Never read by the app (scores are queried by user id); ignored so serializing a User can't load it
+    @JsonIgnore
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<EmojiScore> emojiScores = new ArrayList<>();
 
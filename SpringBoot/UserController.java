@@ -8,6 +8,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
@@ -15,6 +16,15 @@ import org.springframework.web.bind.annotation.*;
 
 import com.games.model.User;
 import com.games.repository.UserRepository;
+import com.games.service.AuthTokenService;
+import com.games.service.EntityCacheStats;
+import com.games.service.UserEntityCache;
+import com.games.service.PasswordHasher;
+import com.games.service.ReadYourWrites;
+import com.games.service.SessionUser;
+import com.games.service.UserDirectory;
+import com.games.service.UserStatsAccumulator;
+import com.games.service.UserStatsDelta;
 
 @RestController
 @RequestMapping("/api/users")
@@ -27,6 +37,27 @@ public class UserController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserStatsAccumulator userStatsAccumulator;
+
+    @Autowired
+    private UserDirectory userDirectory;
+
+    @Autowired
+    private UserEntityCache userEntityCache;
+
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
+
+    @Autowired
+    private EntityCacheStats entityCacheStats;
+
     // 🟢 REGISTER - Now accepts JSON
     @PostMapping("/register")
     @ResponseBody
@@ -34,7 +65,9 @@ public class UserController {
         try {
             System.out.println("📝 Register attempt for: " + registerRequest.getEmail());
             
-            Optional<User> existingUser = userRepository.findByEmail(registerRequest.getEmail());
+            // Stored normalized, the same key login and the directory look it up by
+            String email = UserDirectory.normalize(registerRequest.getEmail());
+            Optional<User> existingUser = userDirectory.loadUserByEmail(email);
             if (existingUser.isPresent()) {
                 Map<String, String> response = new HashMap<>();
                 response.put("message", "exists");
@@ -44,8 +77,8 @@ public class UserController {
 
             User newUser = new User();
             newUser.setUsername(registerRequest.getUsername());
-            newUser.setEmail(registerRequest.getEmail());
-            newUser.setPassword(registerRequest.getPassword());
+            newUser.setEmail(email);
+            newUser.setPassword(passwordHasher.hash(registerRequest.getPassword()));
             userRepository.save(newUser);
 
             Map<String, String> response = new HashMap<>();
@@ -68,7 +101,7 @@ public class UserController {
     // 🟢 LOGIN - Enhanced with JSON response
     @PostMapping("/login")
     @ResponseBody
-    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest, HttpSession session) {
+    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
         try {
             System.out.println("🔐 Login attempt for email: " + loginRequest.getEmail());
             
@@ -79,26 +112,42 @@ public class UserController {
                 return ResponseEntity.badRequest().body(errorResponse);
             }
             
-            Optional<User> user = userRepository.findByEmailAndPassword(
-                loginRequest.getEmail().trim(), 
-                loginRequest.getPassword()
-            );
+            Optional<User> user = userDirectory.loadUserByEmail(loginRequest.getEmail());
+            PasswordHasher.Verification verification = user.isPresent()
+                ? passwordHasher.verify(loginRequest.getPassword(), user.get().getPassword())
+                : PasswordHasher.Verification.FAILED;
 
-            if (user.isPresent()) {
+            if (verification.matches()) {
                 User loggedInUser = user.get();
-                
-                // ✅ Save user object in session
-                session.setAttribute("loggedInUser", loggedInUser);
+                if (verification == PasswordHasher.Verification.MATCHED_NEEDS_REHASH) {
+                    // Plaintext or under-strength hash from before; upgrade it now that we know the password
+                    userRepository.replacePasswordHash(loggedInUser.getId(), loggedInUser.getPassword(),
+                        passwordHasher.hash(loginRequest.getPassword()));
+                    userEntityCache.evict(loggedInUser.getId());
+                }
+                SessionUser principal = SessionUser.from(loggedInUser);
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("message", "Login successful");
+                response.put("user", createUserResponse(loggedInUser));
+
+                if (authTokenService.isStateless()) {
+                    // ✅ Token mode - nothing kept server-side, the client sends it as a bearer token
+                    response.put("token", authTokenService.issue(principal));
+                    System.out.println("✅ Login successful - Token issued for: " + loggedInUser.getUsername());
+                    return ResponseEntity.ok(response);
+                }
+
+                // ✅ Save compact principal in session (not the entity)
+                HttpSession session = request.getSession();
+                session.setAttribute(SessionUser.SESSION_ATTRIBUTE, principal);
                 session.setMaxInactiveInterval(30 * 60);
 
                 System.out.println("✅ Login successful - Session created:");
                 System.out.println("   Session ID: " + session.getId());
                 System.out.println("   User: " + loggedInUser.getUsername());
 
-                Map<String, Object> response = new HashMap<>();
-                response.put("message", "Login successful");
                 response.put("sessionId", session.getId());
-                response.put("user", createUserResponse(loggedInUser));
                 
                 return ResponseEntity.ok(response);
                 
@@ -109,6 +158,11 @@ public class UserController {
                 errorResponse.put("error", "Invalid credentials");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
             }
+        } catch (IllegalStateException e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("message", "error");
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
         } catch (Exception e) {
             System.err.println("❌ Login error: " + e.getMessage());
             Map<String, String> errorResponse = new HashMap<>();
@@ -123,7 +177,8 @@ public class UserController {
     @ResponseBody
     public ResponseEntity<?> updateUser(
             @PathVariable Long id,
-            @RequestBody UpdateRequest updateRequest) {
+            @RequestBody UpdateRequest updateRequest,
+            HttpServletRequest request) {
 
         try {
             Optional<User> optionalUser = userRepository.findById(id);
@@ -135,29 +190,54 @@ public class UserController {
             }
 
             User user = optionalUser.get();
+            String previousEmail = user.getEmail();
             boolean changed = false;
 
             if (!Objects.equals(user.getUsername(), updateRequest.getUsername())) {
                 user.setUsername(updateRequest.getUsername());
                 changed = true;
             }
-            if (!Objects.equals(user.getEmail(), updateRequest.getEmail())) {
-                user.setEmail(updateRequest.getEmail());
+            String email = updateRequest.getEmail() != null ? UserDirectory.normalize(updateRequest.getEmail()) : null;
+            if (!Objects.equals(user.getEmail(), email)) {
+                user.setEmail(email);
                 changed = true;
             }
-            if (!Objects.equals(user.getPassword(), updateRequest.getPassword())) {
-                user.setPassword(updateRequest.getPassword());
+            if (updateRequest.getPassword() != null
+                    && !passwordHasher.verify(updateRequest.getPassword(), user.getPassword()).matches()) {
+                user.setPassword(passwordHasher.hash(updateRequest.getPassword()));
                 changed = true;
             }
 
             if (changed) {
                 user.setUpdatedAt(LocalDateTime.now());
-                userRepository.save(user);
+                if (userRepository.updateProfile(user.getId(), user.getUsername(), user.getEmail(),
+                        user.getPassword(), user.getUpdatedAt()) == 0) {
+                    Map<String, String> response = new HashMap<>();
+                    response.put("message", "not_found");
+                    response.put("error", "User not found with id: " + id);
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+                }
+                // Cached entity, natural id and email -> user mapping are stale now
+                userEntityCache.evict(user.getId(), previousEmail, user.getEmail());
+                userDirectory.evict(previousEmail);
+                userDirectory.evict(user.getEmail());
+                readYourWrites.recordWrite(user.getId());
                 
                 Map<String, String> response = new HashMap<>();
                 response.put("message", "updated");
                 response.put("username", user.getUsername());
                 response.put("email", user.getEmail());
+
+                // Logged-in identity follows the edit: swap the session copy, or hand out a new token
+                SessionUser principal = SessionUser.from(user);
+                HttpSession session = request.getSession(false);
+                if (session != null && session.getAttribute(SessionUser.SESSION_ATTRIBUTE) instanceof SessionUser current
+                        && current.getId().equals(user.getId())) {
+                    session.setAttribute(SessionUser.SESSION_ATTRIBUTE, principal);
+                }
+                if (authTokenService.isStateless()) {
+                    response.put("token", authTokenService.issue(principal));
+                }
                 return ResponseEntity.ok(response);
             } else {
                 Map<String, String> response = new HashMap<>();
@@ -179,7 +259,9 @@ public class UserController {
     @ResponseBody
     public ResponseEntity<?> getUserProfile(@RequestBody ProfileRequest profileRequest) {
         try {
-            Optional<User> user = userRepository.findByEmail(profileRequest.getEmail());
+            // Email resolved from the directory cache, then a primary-key load
+            Optional<User> user = userDirectory.findByEmail(profileRequest.getEmail())
+                .flatMap(identity -> userRepository.findById(identity.getId()));
             if (user.isPresent()) {
                 Map<String, Object> response = new HashMap<>();
                 response.put("message", "success");
@@ -201,34 +283,47 @@ public class UserController {
     }
     
     @GetMapping("/me")
-    public ResponseEntity<?> getCurrentUser(HttpSession session) {
-        Object userObj = session.getAttribute("loggedInUser");
-        if (userObj == null) {
+    public ResponseEntity<?> getCurrentUser(SessionUser user) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Collections.singletonMap("error", "Not logged in"));
         }
         
-        User user = (User) userObj;
         Map<String, Object> userInfo = new HashMap<>();
         userInfo.put("id", user.getId());
         userInfo.put("username", user.getUsername());
         userInfo.put("email", user.getEmail());
         
+        // Current stats: stored row plus rounds not yet flushed to it
+        userRepository.findById(user.getId()).ifPresent(stored -> {
+            UserStatsDelta pending = userStatsAccumulator.pending(stored.getId());
+            userInfo.put("level", stored.getLevel());
+            userInfo.put("score", pending.totalScore(stored));
+            userInfo.put("gamesPlayed", pending.gamesPlayed(stored));
+            userInfo.put("highestScore", pending.highestScore(stored));
+            userInfo.put("averageScore", pending.averageScore(stored));
+            userInfo.put("totalCorrectAnswers", pending.totalCorrectAnswers(stored));
+            userInfo.put("totalTimePlayed", pending.totalTimePlayed(stored));
+        });
+        
         return ResponseEntity.ok(userInfo);
     }
 
     // 🟢 LOGOUT
     @PostMapping("/logout")
     @ResponseBody
-    public ResponseEntity<?> logout(HttpSession session) {
+    public ResponseEntity<?> logout(SessionUser user, HttpServletRequest request) {
         try {
             String username = "Unknown";
-            User user = (User) session.getAttribute("loggedInUser");
             if (user != null) {
                 username = user.getUsername();
             }
             
-            session.invalidate();
+            // Tokens simply expire; only a session has server-side state to drop
+            HttpSession session = request.getSession(false);
+            if (session != null) {
+                session.invalidate();
+            }
             
             Map<String, String> response = new HashMap<>();
             response.put("message", "logout_success");
@@ -246,12 +341,12 @@ public class UserController {
     // 🟢 SESSION CHECK endpoints
     @GetMapping("/session")
     @ResponseBody
-    public ResponseEntity<?> checkSession1(HttpSession session) {
-        User user = (User) session.getAttribute("loggedInUser");
-        if (user != null) {
+    public ResponseEntity<?> checkSession1(SessionUser principal) {
+        Optional<User> user = principal != null ? userRepository.findById(principal.getId()) : Optional.empty();
+        if (user.isPresent()) {
             Map<String, Object> response = new HashMap<>();
             response.put("message", "session_active");
-            response.put("user", createUserResponse(user));
+            response.put("user", createUserResponse(user.get()));
             return ResponseEntity.ok(response);
         } else {
             Map<String, String> response = new HashMap<>();
@@ -270,11 +365,11 @@ public class UserController {
         sessionInfo.put("creationTime", session.getCreationTime());
         sessionInfo.put("lastAccessedTime", session.getLastAccessedTime());
         
-        Object userObj = session.getAttribute("loggedInUser");
-        if (userObj != null) {
-            User user = (User) userObj;
+        Object userObj = session.getAttribute(SessionUser.SESSION_ATTRIBUTE);
+        if (userObj instanceof SessionUser principal) {
             sessionInfo.put("loggedIn", true);
-            sessionInfo.put("user", createUserResponse(user));
+            userRepository.findById(principal.getId())
+                .ifPresent(user -> sessionInfo.put("user", createUserResponse(user)));
         } else {
             sessionInfo.put("loggedIn", false);
             sessionInfo.put("availableAttributes", Collections.list(session.getAttributeNames()));
@@ -302,8 +397,8 @@ public class UserController {
         List<String> attributeNames = Collections.list(session.getAttributeNames());
         debugInfo.put("attributeNames", attributeNames);
         
-        User user = (User) session.getAttribute("loggedInUser");
-        debugInfo.put("userInSession", user != null ? user.getUsername() : "null");
+        Object user = session.getAttribute(SessionUser.SESSION_ATTRIBUTE);
+        debugInfo.put("userInSession", user instanceof SessionUser principal ? principal.getUsername() : "null");
         
         Map<String, Object> response = new HashMap<>();
         response.put("message", "debug_info");
@@ -311,6 +406,20 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
     
+    // Hit/miss counters of the email -> user cache, for tuning its size and TTL
+    @GetMapping("/directory-stats")
+    @ResponseBody
+    public ResponseEntity<?> directoryStats() {
+        return ResponseEntity.ok(userDirectory.cacheStats());
+    }
+
+    // Second-level / natural-id cache counters, per region
+    @GetMapping("/entity-cache-stats")
+    @ResponseBody
+    public ResponseEntity<?> entityCacheStats() {
+        return ResponseEntity.ok(entityCacheStats.snapshot());
+    }
+
     @GetMapping("/health")
     @ResponseBody
     public ResponseEntity<?> healthCheck() {
@@ -0,0 +1,131 @@
+package com.games.service;
+
+import com.games.model.User;
+import com.games.repository.UserIdentity;
+import com.games.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Email -> user resolution for every email-keyed endpoint. Resolved identities are cached
+// (bounded, TTL-evicted) so repeat lookups skip the DB; UserController evicts an email whenever
+// that user's email or username changes. A missing player is created with an insert that can't
+// race into a unique violation when two first submits for the same email arrive together.
+@Service
+public class UserDirectory {
+
+    private static final int MAX_CREATE_ATTEMPTS = 5;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final LruCache<String, UserSnapshot> byEmail;
+
+    // Bumped on every invalidation; a lookup that raced with one doesn't get cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public UserDirectory(@Value("${playhive.user-directory.max-entries:50000}") int maxEntries,
+                         @Value("${playhive.user-directory.ttl-minutes:10}") long ttlMinutes) {
+        this.byEmail = new LruCache<>(maxEntries, Duration.ofMinutes(ttlMinutes));
+    }
+
+    public Optional<UserIdentity> findByEmail(String email) {
+        String normalized = normalize(email);
+        UserSnapshot cached = byEmail.get(normalized);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return load(normalized);
+    }
+
+    public UserIdentity findOrCreateByEmail(String email) {
+        String normalized = normalize(email);
+        Optional<UserIdentity> existing = findByEmail(normalized);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        String baseUsername = normalized.split("@")[0];
+        for (int attempt = 0; attempt < MAX_CREATE_ATTEMPTS; attempt++) {
+            String username = attempt == 0
+                ? baseUsername
+                : baseUsername + "_" + ThreadLocalRandom.current().nextInt(1000, 10000);
+            // Unusable password: auto-created players can't log in until they register one
+            transactionTemplate.executeWithoutResult(status -> userRepository.insertIfAbsent(
+                username, normalized, PasswordHasher.UNUSABLE_PREFIX + UUID.randomUUID(), LocalDateTime.now()));
+
+            Optional<UserIdentity> created = load(normalized);
+            if (created.isPresent()) {
+                System.out.println("👤 Resolved new user for email: " + normalized + " (ID: " + created.get().getId() + ")");
+                return created.get();
+            }
+            // The insert was a no-op because the username belongs to someone else; try a suffixed one
+        }
+        throw new RuntimeException("Could not create user for email: " + normalized);
+    }
+
+    // Full User by email via its natural id, so repeat loads hit the natural-id and entity caches
+    // when the second-level cache is enabled (login, registration checks). The key is normalized
+    // like every stored email, so " Ann@X.com" and "ann@x.com" resolve the same cache entry.
+    public Optional<User> loadUserByEmail(String email) {
+        String normalized = normalize(email);
+        return transactionTemplate.execute(status ->
+            entityManager.unwrap(Session.class).bySimpleNaturalId(User.class).loadOptional(normalized));
+    }
+
+    // Call after the change is committed, with the email as it was before the change
+    public void evict(String email) {
+        if (email != null) {
+            invalidations.incrementAndGet();
+            byEmail.remove(normalize(email));
+        }
+    }
+
+    public Map<String, Object> cacheStats() {
+        long hits = byEmail.hitCount();
+        long misses = byEmail.missCount();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", byEmail.size());
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRate", hits + misses > 0 ? (double) hits / (hits + misses) : 0.0);
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+
+    private Optional<UserIdentity> load(String normalized) {
+        long seen = invalidations.get();
+        Optional<UserIdentity> row = userRepository.findIdentityByEmail(normalized);
+        if (row.isEmpty()) {
+            return Optional.empty();
+        }
+        UserSnapshot snapshot = new UserSnapshot(row.get().getId(), row.get().getUsername(), normalized);
+        if (invalidations.get() == seen) {
+            byEmail.put(normalized, snapshot);
+        }
+        return Optional.of(snapshot);
+    }
+
+    public static String normalize(String email) {
+        return email.trim().toLowerCase();
+    }
+}
@@ -0,0 +1,70 @@
+package com.games.service;
+
+import com.games.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.access.NaturalIdDataAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Per-user eviction from the second-level cache for writes that bypass it (the stats, profile
+// and password UPDATEs), plus the email natural ids when those may have changed.
+// Evicted right away and again once the transaction ends, so a load that raced with the
+// uncommitted UPDATE and cached the old row doesn't outlive the commit. No-op when the
+// cache is off (playhive.jpa.cache.enabled).
+@Component
+public class UserEntityCache {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final boolean enabled;
+
+    public UserEntityCache(@Value("${playhive.jpa.cache.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void evict(Long userId, String... emails) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        evictNow(userId, emails);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictNow(userId, emails);
+                }
+            });
+        }
+    }
+
+    private void evictNow(Long userId, String[] emails) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(User.class, userId);
+        if (emails.length == 0) {
+            return;
+        }
+        // Cache.evictNaturalIdData only drops the whole region, so build the keys by hand
+        SessionFactoryImplementor factory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EntityPersister persister = factory.getMappingMetamodel().getEntityDescriptor(User.class);
+        if (!persister.hasNaturalIdCache()) {
+            return;
+        }
+        NaturalIdDataAccess access = persister.getNaturalIdCacheAccessStrategy();
+        try (SharedSessionContractImplementor session = (SharedSessionContractImplementor) factory.openSession()) {
+            for (String email : emails) {
+                if (email != null) {
+                    access.evict(access.generateCacheKey(email, persister, session));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.games.repository;
+
+// id and username of a user, enough to attribute a score without loading the whole row
+public interface UserIdentity {
+    Long getId();
+    String getUsername();
+}
@@ -1,11 +1,18 @@
 package com.games.repository;
 
 import com.games.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,10 +21,93 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByEmail(String email);
 
-    Optional<User> findByEmailAndPassword(String email, String password);
+    @Query("SELECT u.id AS id, u.username AS username FROM User u WHERE u.email = :email")
+    Optional<UserIdentity> findIdentityByEmail(@Param("email") String email);
+
+    // Creates a player on first submit. A concurrent insert of the same email (or username) turns
+    // into a no-op instead of a unique violation; the caller re-reads by email to see who won.
+    // A new row invalidates nothing cached, so it is declared against its own query space: with
+    // none Hibernate would clear every cache region, with "users" the whole users region.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_insert"))
+    @Query(value = "INSERT INTO users (username, email, password, registration_date, updated_at, " +
+                   "original_username, original_email, original_password, score, level, " +
+                   "average_time_per_game, games_played, total_correct_answers, total_time_played, " +
+                   "highest_score, average_score, accuracy, status) " +
+                   "VALUES (:username, :email, :password, :now, :now, :username, :email, :password, " +
+                   "0, 1, 0, 0, 0, 0, 0, 0, 0, 'ACTIVE') " +
+                   "ON DUPLICATE KEY UPDATE email = email",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("username") String username,
+                       @Param("email") String email,
+                       @Param("password") String password,
+                       @Param("now") LocalDateTime now);
+
+    // Swaps a legacy/weaker password for a fresh hash, unless the password changed meanwhile.
+    // original_password held the same legacy value on old rows, so it is replaced too.
+    // Own query space like applyGameStats; the caller evicts the user (UserEntityCache).
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_profile"))
+    @Query(value = "UPDATE users SET " +
+           "original_password = CASE WHEN original_password = :previous THEN :hash ELSE original_password END, " +
+           "password = :hash " +
+           "WHERE id = :id AND password = :previous", nativeQuery = true)
+    int replacePasswordHash(@Param("id") Long id,
+                            @Param("previous") String previous,
+                            @Param("hash") String hash);
+
+    // Profile edit touches only the profile columns. Saving the loaded entity would write its
+    // (possibly stale) stat columns back over stats applied since it was read. Own query space
+    // like applyGameStats; the caller evicts the user and both emails (UserEntityCache).
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_profile"))
+    @Query(value = "UPDATE users SET username = :username, email = :email, password = :password, " +
+           "updated_at = :updatedAt WHERE id = :id", nativeQuery = true)
+    int updateProfile(@Param("id") Long id,
+                      @Param("username") String username,
+                      @Param("email") String email,
+                      @Param("password") String password,
+                      @Param("updatedAt") LocalDateTime updatedAt);
 
     @Query("SELECT COUNT(u) FROM User u WHERE u.registrationDate BETWEEN :start AND :end")
     Long countRegistrationsBetween(LocalDate start, LocalDate end);
 
     List<User> findTop10ByOrderByScoreDesc();
+
+    // Applies one or more rounds' worth of stats to a user in a single UPDATE, touching only
+    // the stat columns. Derived columns are assigned first and computed from old value + delta,
+    // so the result is the same whether the DB evaluates SET left to right (MySQL) or not.
+    // Level follows the same thresholds as User.updateGameStats.
+    // Native and declared against its own query space rather than "users": Hibernate answers any
+    // bulk statement on users by dropping the whole users cache region (and the users-by-email
+    // natural ids), and this one runs for every round. Callers evict the one updated user
+    // instead (UserEntityCache).
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_stats"))
+    @Query(value = "UPDATE users SET " +
+           "average_score = (COALESCE(score, 0) + :score) * 1.0 / (COALESCE(games_played, 0) + :games), " +
+           "average_time_per_game = (COALESCE(total_time_played, 0) + :timePlayed) * 1.0 / (COALESCE(games_played, 0) + :games), " +
+           "accuracy = (COALESCE(total_correct_answers, 0) + :correctAnswers) * 100.0 / ((COALESCE(games_played, 0) + :games) * 10), " +
+           "level = CASE " +
+           "  WHEN COALESCE(score, 0) + :score >= 5000 AND COALESCE(level, 1) < 2 THEN 2 " +
+           "  WHEN COALESCE(score, 0) + :score >= 15000 AND COALESCE(level, 1) < 3 THEN 3 " +
+           "  WHEN COALESCE(score, 0) + :score >= 30000 AND COALESCE(level, 1) < 4 THEN 4 " +
+           "  WHEN COALESCE(score, 0) + :score >= 50000 AND COALESCE(level, 1) < 5 THEN 5 " +
+           "  ELSE COALESCE(level, 1) END, " +
+           "highest_score = CASE WHEN COALESCE(highest_score, 0) < :best THEN :best ELSE COALESCE(highest_score, 0) END, " +
+           "games_played = COALESCE(games_played, 0) + :games, " +
+           "score = COALESCE(score, 0) + :score, " +
+           "total_correct_answers = COALESCE(total_correct_answers, 0) + :correctAnswers, " +
+           "total_time_played = COALESCE(total_time_played, 0) + :timePlayed, " +
+           "last_played = :playedAt " +
+           "WHERE id = :id", nativeQuery = true)
+    int applyGameStats(@Param("id") Long id,
+                       @Param("games") int games,
+                       @Param("score") int score,
+                       @Param("best") int best,
+                       @Param("correctAnswers") int correctAnswers,
+                       @Param("timePlayed") int timePlayed,
+                       @Param("playedAt") LocalDateTime playedAt);
 }
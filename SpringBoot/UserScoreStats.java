@@ -0,0 +1,36 @@
+package com.games.service;
+
+import java.util.Optional;
+
+// Running count / total / best of one player's scores in one game
+public final class UserScoreStats {
+
+    public static final UserScoreStats EMPTY = new UserScoreStats(0, 0, 0);
+
+    private final long gamesPlayed;
+    private final long totalScore;
+    private final int highScore;
+
+    public UserScoreStats(long gamesPlayed, long totalScore, int highScore) {
+        this.gamesPlayed = gamesPlayed;
+        this.totalScore = totalScore;
+        this.highScore = highScore;
+    }
+
+    public UserScoreStats plus(int score) {
+        return gamesPlayed == 0
+            ? new UserScoreStats(1, score, score)
+            : new UserScoreStats(gamesPlayed + 1, totalScore + score, Math.max(highScore, score));
+    }
+
+    public long getGamesPlayed() { return gamesPlayed; }
+    public long getTotalScore() { return totalScore; }
+
+    public Optional<Integer> getHighScore() {
+        return gamesPlayed > 0 ? Optional.of(highScore) : Optional.empty();
+    }
+
+    public Optional<Double> getAverageScore() {
+        return gamesPlayed > 0 ? Optional.of((double) totalScore / gamesPlayed) : Optional.empty();
+    }
+}
@@ -0,0 +1,25 @@
+package com.games.service;
+
+import com.games.repository.UserIdentity;
+
+// Immutable cached copy of a user's identity, keyed by normalized email in UserDirectory
+public class UserSnapshot implements UserIdentity {
+
+    private final Long id;
+    private final String username;
+    private final String email;
+
+    public UserSnapshot(Long id, String username, String email) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+    }
+
+    @Override
+    public Long getId() { return id; }
+
+    @Override
+    public String getUsername() { return username; }
+
+    public String getEmail() { return email; }
+}
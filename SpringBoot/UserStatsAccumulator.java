@@ -0,0 +1,215 @@
+package com.games.service;
+
+import com.games.model.EmojiScore;
+import com.games.model.MindloopScore;
+import com.games.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Deferred user stat counters. In "deferred" mode (opt-in, see the constructor) committed
+// rounds are added to per-user LongAdders instead of updating the users row, and a scheduled
+// flush writes each user's coalesced delta with one applyGameStats UPDATE. Rapid-fire players
+// then take the row lock once per flush instead of once per round. Reads merge pending() over
+// the stored row.
+@Component
+public class UserStatsAccumulator {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserEntityCache userEntityCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final boolean deferred;
+
+    private final Map<Long, Counters> pending = new ConcurrentHashMap<>();
+
+    // playhive.user-stats.mode: "immediate" (default) updates the users row in the round's own
+    // transaction. "deferred" is an opt-in trade of durability for write throughput:
+    //  - pending deltas live only in memory, so a crash or kill loses up to one flush interval
+    //    of stats (the score rows themselves are committed and unaffected);
+    //  - flush() keeps what it drained in flight, still counted by pending(), until its
+    //    transaction commits. Only a read that straddles the commit itself can see the delta
+    //    in both the row and pending(), or in neither.
+    public UserStatsAccumulator(@Value("${playhive.user-stats.mode:immediate}") String mode) {
+        this.deferred = "deferred".equalsIgnoreCase(mode);
+    }
+
+    // false means callers apply stats inside their own transaction (the immediate path)
+    public boolean isDeferred() {
+        return deferred;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmojiScoreSaved(ScoreSavedEvent<EmojiScore> event) {
+        EmojiScore score = event.getScore();
+        record(score.getUser().getId(), score.getScore(), score.getCorrectAnswers(), score.getTimeTaken());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMindloopScoreSaved(ScoreSavedEvent<MindloopScore> event) {
+        MindloopScore score = event.getScore();
+        record(score.getUser().getId(), score.getScore(), score.getCorrectAnswers(), score.getTimeTaken());
+    }
+
+    // Unflushed part of a user's stats, including a delta a running flush hasn't committed yet;
+    // NONE if everything is already in the row
+    public UserStatsDelta pending(Long userId) {
+        Counters counters = pending.get(userId);
+        return counters == null ? UserStatsDelta.NONE : counters.snapshot();
+    }
+
+    @Scheduled(fixedDelayString = "${playhive.user-stats.flush-interval-ms:2000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // Sorted so the flush locks user rows in the same order as saveScores
+        Map<Long, Counters> batch = new TreeMap<>();
+        for (Map.Entry<Long, Counters> entry : pending.entrySet()) {
+            Counters counters = entry.getValue();
+            UserStatsDelta delta = counters.beginFlush();
+            if (delta.isEmpty()) {
+                counters.endFlush(entry.getKey(), false);
+                retire(entry.getKey(), counters);
+            } else if (delta.getGames() == 0) {
+                // Caught a round halfway through add(); its games count is still to come
+                counters.endFlush(entry.getKey(), false);
+            } else {
+                batch.put(entry.getKey(), counters);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        boolean committed = false;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Map.Entry<Long, Counters> entry : batch.entrySet()) {
+                    if (!entry.getValue().inFlight.applyTo(userRepository, userEntityCache, entry.getKey())) {
+                        System.out.println("⚠️ Dropping stats for missing user " + entry.getKey());
+                    }
+                }
+            });
+            committed = true;
+        } catch (RuntimeException e) {
+            // Put it all back, the next flush retries
+            System.out.println("❌ User stats flush failed: " + e.getMessage());
+        } finally {
+            for (Map.Entry<Long, Counters> entry : batch.entrySet()) {
+                entry.getValue().endFlush(entry.getKey(), committed);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void record(Long userId, int score, int correctAnswers, int timeTaken) {
+        if (!deferred) {
+            return;
+        }
+        Counters counters = pending.computeIfAbsent(userId, id -> new Counters());
+        counters.add(1, score, score, correctAnswers, timeTaken);
+        counters.handOffIfRetired(userId);
+    }
+
+    private void restore(Long userId, UserStatsDelta delta) {
+        Counters counters = pending.computeIfAbsent(userId, id -> new Counters());
+        counters.add(delta.getGames(), delta.getScore(), delta.getBest(),
+            delta.getCorrectAnswers(), delta.getTimePlayed());
+        counters.handOffIfRetired(userId);
+    }
+
+    // Idle users are dropped from the map. A recorder that still holds the old Counters sees
+    // the retired flag after its add and moves whatever it finds into the live entry.
+    private void retire(Long userId, Counters counters) {
+        if (pending.remove(userId, counters)) {
+            counters.retired = true;
+            UserStatsDelta late = counters.drain();
+            if (!late.isEmpty()) {
+                restore(userId, late);
+            }
+        }
+    }
+
+    private final class Counters {
+        final LongAdder games = new LongAdder();
+        final LongAdder score = new LongAdder();
+        final LongAdder correctAnswers = new LongAdder();
+        final LongAdder timePlayed = new LongAdder();
+        final LongAccumulator best = new LongAccumulator(Math::max, 0);
+        volatile boolean retired;
+
+        // Drained by a running flush but not committed yet; guarded by this, so snapshot()
+        // sees each drained round either still in the adders or here, never in neither
+        UserStatsDelta inFlight = UserStatsDelta.NONE;
+
+        void add(long gamesDelta, long scoreDelta, long bestScore, long correctDelta, long timeDelta) {
+            score.add(scoreDelta);
+            correctAnswers.add(correctDelta);
+            timePlayed.add(timeDelta);
+            best.accumulate(bestScore);
+            games.add(gamesDelta);
+        }
+
+        void handOffIfRetired(Long userId) {
+            if (retired) {
+                UserStatsDelta late = drain();
+                if (!late.isEmpty()) {
+                    restore(userId, late);
+                }
+            }
+        }
+
+        // Each counter is swapped to zero atomically, so a concurrent add lands in this
+        // drain or the next one, never in neither. games is added last and drained first,
+        // so a drained game always comes with the rest of its round.
+        UserStatsDelta drain() {
+            return new UserStatsDelta((int) games.sumThenReset(), (int) score.sumThenReset(),
+                (int) best.getThenReset(), (int) correctAnswers.sumThenReset(), (int) timePlayed.sumThenReset());
+        }
+
+        synchronized UserStatsDelta beginFlush() {
+            inFlight = drain();
+            return inFlight;
+        }
+
+        // Committed: the row has it now. Otherwise it goes back into the adders for the next flush.
+        void endFlush(Long userId, boolean committed) {
+            synchronized (this) {
+                if (!committed) {
+                    add(inFlight.getGames(), inFlight.getScore(), inFlight.getBest(),
+                        inFlight.getCorrectAnswers(), inFlight.getTimePlayed());
+                }
+                inFlight = UserStatsDelta.NONE;
+            }
+            handOffIfRetired(userId);
+        }
+
+        synchronized UserStatsDelta snapshot() {
+            return new UserStatsDelta(games.intValue() + inFlight.getGames(),
+                score.intValue() + inFlight.getScore(), Math.max(best.intValue(), inFlight.getBest()),
+                correctAnswers.intValue() + inFlight.getCorrectAnswers(),
+                timePlayed.intValue() + inFlight.getTimePlayed());
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.games.service;
+
+import com.games.model.EmojiScore;
+import com.games.model.MindloopScore;
+import com.games.repository.EmojiScoreRepository;
+import com.games.repository.MindloopScoreRepository;
+import com.games.repository.ScoreAggregate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+// Per-user, per-game high/average/count answered from memory.
+// A miss costs one aggregate query; submissions then keep the entry current without touching the DB.
+//
+// A score is folded into a cached entry only after its transaction commits, and a miss must not
+// cache an aggregate that a pending fold would then count again (or one that a finished fold
+// missed). So every write marks its user from the moment it is saved until after the fold:
+// a miss for a user with a write in flight, or one that saw a write start meanwhile, is
+// answered but not cached. Marks are kept per stripe of user ids, so writes by other players
+// don't stop a miss from being cached.
+@Component
+public class UserStatsCache {
+
+    private static final int STRIPES = 1024;
+
+    @Autowired
+    private EmojiScoreRepository emojiScoreRepository;
+
+    @Autowired
+    private MindloopScoreRepository mindloopScoreRepository;
+
+    private final GameStats emojiStats;
+    private final GameStats mindloopStats;
+
+    public UserStatsCache(@Value("${playhive.stats-cache.max-users:10000}") int maxUsers) {
+        this.emojiStats = new GameStats(maxUsers);
+        this.mindloopStats = new GameStats(maxUsers);
+    }
+
+    public UserScoreStats emoji(Long userId) {
+        return emojiStats.lookup(userId, emojiScoreRepository::aggregateByUserId);
+    }
+
+    public UserScoreStats mindloop(Long userId) {
+        return mindloopStats.lookup(userId, mindloopScoreRepository::aggregateByUserId);
+    }
+
+    // Runs when the score is saved, inside its transaction, so the user is marked before commit
+    @EventListener
+    public void onEmojiScoreSaved(ScoreSavedEvent<EmojiScore> event) {
+        EmojiScore score = event.getScore();
+        emojiStats.write(score.getUser().getId(), stats -> stats.plus(score.getScore()));
+    }
+
+    @EventListener
+    public void onMindloopScoreSaved(ScoreSavedEvent<MindloopScore> event) {
+        MindloopScore score = event.getScore();
+        mindloopStats.write(score.getUser().getId(), stats -> stats.plus(score.getScore()));
+    }
+
+    // A max can't be un-applied, so deletes just drop the entry
+    @EventListener
+    public void onEmojiScoreDeleted(ScoreDeletedEvent<EmojiScore> event) {
+        emojiStats.write(event.getScore().getUser().getId(), null);
+    }
+
+    @EventListener
+    public void onMindloopScoreDeleted(ScoreDeletedEvent<MindloopScore> event) {
+        mindloopStats.write(event.getScore().getUser().getId(), null);
+    }
+
+    private static final class GameStats {
+
+        private final LruCache<Long, UserScoreStats> cache;
+
+        // Per stripe: writes saved but not yet folded, and a stamp bumped when one starts or ends
+        private final AtomicIntegerArray inFlight = new AtomicIntegerArray(STRIPES);
+        private final AtomicLongArray stamps = new AtomicLongArray(STRIPES);
+
+        GameStats(int maxUsers) {
+            this.cache = new LruCache<>(maxUsers);
+        }
+
+        // fold == null drops the entry instead of updating it
+        void write(Long userId, UnaryOperator<UserScoreStats> fold) {
+            int stripe = stripe(userId);
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                // Already committed; nothing to wait for, so just make the next read reload
+                stamps.incrementAndGet(stripe);
+                cache.remove(userId);
+                return;
+            }
+            inFlight.incrementAndGet(stripe);
+            stamps.incrementAndGet(stripe);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        if (fold != null) {
+                            cache.updateIfPresent(userId, fold);
+                        } else {
+                            cache.remove(userId);
+                        }
+                    }
+                    stamps.incrementAndGet(stripe);
+                    inFlight.decrementAndGet(stripe);
+                }
+            });
+        }
+
+        UserScoreStats lookup(Long userId, Function<Long, ScoreAggregate> aggregate) {
+            UserScoreStats cached = cache.get(userId);
+            if (cached != null) {
+                return cached;
+            }
+
+            int stripe = stripe(userId);
+            long seen = stamps.get(stripe);
+            boolean quiet = inFlight.get(stripe) == 0;
+            ScoreAggregate row = aggregate.apply(userId);
+            UserScoreStats loaded = row == null || row.getGames() == 0
+                ? UserScoreStats.EMPTY
+                : new UserScoreStats(row.getGames(),
+                    row.getTotal() != null ? row.getTotal() : 0L,
+                    row.getBest() != null ? row.getBest() : 0);
+            if (quiet && stamps.get(stripe) == seen) {
+                cache.put(userId, loaded);
+                // A write that started between the check and the put may have folded into nothing,
+                // or be about to fold into a total that already has it
+                if (stamps.get(stripe) != seen) {
+                    cache.remove(userId);
+                }
+            }
+            return loaded;
+        }
+
+        private static int stripe(Long userId) {
+            return Long.hashCode(userId) & (STRIPES - 1);
+        }
+    }
+}
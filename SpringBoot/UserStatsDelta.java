@@ -0,0 +1,100 @@
+package com.games.service;
+
+import com.games.model.User;
+import com.games.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+// Stat increments for one user, folded from one or more rounds and applied with a single UPDATE.
+// Also used as the not-yet-flushed part of a user's stats, merged over the stored row on reads.
+public class UserStatsDelta {
+
+    public static final UserStatsDelta NONE = new UserStatsDelta(0, 0, 0, 0, 0);
+
+    private int games;
+    private int score;
+    private int best;
+    private int correctAnswers;
+    private int timePlayed;
+
+    public UserStatsDelta() {}
+
+    public UserStatsDelta(int games, int score, int best, int correctAnswers, int timePlayed) {
+        this.games = games;
+        this.score = score;
+        this.best = best;
+        this.correctAnswers = correctAnswers;
+        this.timePlayed = timePlayed;
+    }
+
+    public UserStatsDelta add(ScoreSubmission submission) {
+        games++;
+        score += submission.getScore();
+        best = Math.max(best, submission.getScore());
+        correctAnswers += submission.getCorrectAnswers();
+        timePlayed += submission.getTimeTaken();
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return games == 0 && score == 0 && best == 0 && correctAnswers == 0 && timePlayed == 0;
+    }
+
+    // false if the user row doesn't exist
+    public boolean applyTo(UserRepository userRepository, UserEntityCache userEntityCache, Long userId) {
+        boolean applied = userRepository.applyGameStats(userId, games, score, best,
+            correctAnswers, timePlayed, LocalDateTime.now()) > 0;
+        userEntityCache.evict(userId);
+        return applied;
+    }
+
+    public int getGames() { return games; }
+    public int getScore() { return score; }
+    public int getBest() { return best; }
+    public int getCorrectAnswers() { return correctAnswers; }
+    public int getTimePlayed() { return timePlayed; }
+
+    // 🟢 Stored row + this delta, same formulas as UserRepository.applyGameStats
+    public int gamesPlayed(User user) {
+        return orZero(user.getGamesPlayed()) + games;
+    }
+
+    public int totalScore(User user) {
+        return orZero(user.getScore()) + score;
+    }
+
+    public int highestScore(User user) {
+        return Math.max(orZero(user.getHighestScore()), best);
+    }
+
+    public int totalCorrectAnswers(User user) {
+        return orZero(user.getTotalCorrectAnswers()) + correctAnswers;
+    }
+
+    public int totalTimePlayed(User user) {
+        return orZero(user.getTotalTimePlayed()) + timePlayed;
+    }
+
+    public double averageScore(User user) {
+        int played = gamesPlayed(user);
+        return games == 0 || played == 0 ? orZero(user.getAverageScore()) : (double) totalScore(user) / played;
+    }
+
+    public double accuracy(User user) {
+        int played = gamesPlayed(user);
+        return games == 0 || played == 0 ? user.getAccuracy() : totalCorrectAnswers(user) * 100.0 / (played * 10);
+    }
+
+    public double averageTimePerGame(User user) {
+        int played = gamesPlayed(user);
+        return games == 0 || played == 0 ? orZero(user.getAverageTimePerGame()) : (double) totalTimePlayed(user) / played;
+    }
+
+    private static int orZero(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private static double orZero(Double value) {
+        return value != null ? value : 0.0;
+    }
+}
@@ -0,0 +1,65 @@
+package com.games.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+
+import java.util.concurrent.Executors;
+
+// playhive.threads.mode=virtual (needs Java 21): Tomcat requests, MVC async/streaming responses
+// and @Scheduled work (the stats flush) run on virtual threads, so a burst of requests blocked
+// on JDBC no longer exhausts a fixed platform-thread pool. The database is then the limit, so
+// the primary Hikari pool is sized explicitly and callers wait at most connection-timeout-ms
+// for it. The read replica pool (DataSourceRoutingConfig) keeps its own
+// playhive.datasource.replica.pool-size. The score writer, broadcaster and password hasher keep
+// their own bounded platform threads. loadtest/compare-thread-modes.sh benchmarks both modes.
+@Configuration
+@ConditionalOnProperty(name = "playhive.threads.mode", havingValue = "virtual")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadRequests() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean
+    public TaskScheduler taskScheduler() {
+        SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+        scheduler.setThreadNamePrefix("scheduled-");
+        scheduler.setVirtualThreads(true);
+        return scheduler;
+    }
+
+    @Bean
+    public static BeanPostProcessor connectionPoolSizer(
+            @Value("${playhive.threads.virtual.db-pool-size:30}") int poolSize,
+            @Value("${playhive.threads.virtual.connection-timeout-ms:3000}") long connectionTimeoutMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                // Only the primary: the default "dataSource" pool, or "primary" when a replica is routed
+                if (bean instanceof HikariDataSource dataSource && !"replica".equals(dataSource.getPoolName())) {
+                    dataSource.setMaximumPoolSize(poolSize);
+                    dataSource.setMinimumIdle(poolSize);
+                    dataSource.setConnectionTimeout(connectionTimeoutMs);
+                    System.out.println("🧵 Virtual threads on, DB pool size " + poolSize);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,116 @@
+package com.games.service;
+
+import com.games.model.EmojiScore;
+import com.games.model.MindloopScore;
+import com.games.model.ShapeShifterScore;
+import com.games.repository.EmojiScoreRepository;
+import com.games.repository.MindloopScoreRepository;
+import com.games.repository.ShapeShifterScoreRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Daily / weekly / monthly boards for every game, kept as a ring of per-day top-K boards
+@Component
+public class WindowedLeaderboardIndex {
+
+    @Autowired
+    private EmojiScoreRepository emojiScoreRepository;
+
+    @Autowired
+    private MindloopScoreRepository mindloopScoreRepository;
+
+    @Autowired
+    private ShapeShifterScoreRepository shapeShifterScoreRepository;
+
+    @Value("${playhive.leaderboard.depth:50}")
+    private int depth;
+
+    private RollingLeaderboard<EmojiScore> emojiBoards;
+    private RollingLeaderboard<MindloopScore> mindloopBoards;
+    private RollingLeaderboard<ShapeShifterScore> shapeShifterBoards;
+
+    @PostConstruct
+    public void load() {
+        int days = LeaderboardWindow.longestDays();
+        int capacity = Math.max(depth, LeaderboardIndex.LEADERBOARD_SIZE);
+
+        emojiBoards = new RollingLeaderboard<>(days, capacity, LeaderboardIndex.EMOJI_ORDER,
+            EmojiScore::getId, score -> dayOf(score.getPlayedAt()),
+            (day, limit) -> emojiScoreRepository
+                .findByPlayedAtGreaterThanEqualAndPlayedAtLessThanOrderByScoreDescTimeTakenAscIdAsc(
+                    day.atStartOfDay(), day.plusDays(1).atStartOfDay(), PageRequest.of(0, limit)));
+
+        mindloopBoards = new RollingLeaderboard<>(days, capacity, LeaderboardIndex.MINDLOOP_ORDER,
+            MindloopScore::getId, score -> dayOf(score.getPlayedAt()),
+            (day, limit) -> mindloopScoreRepository
+                .findByPlayedAtGreaterThanEqualAndPlayedAtLessThanOrderByScoreDescTimeTakenAscIdAsc(
+                    day.atStartOfDay(), day.plusDays(1).atStartOfDay(), PageRequest.of(0, limit)));
+
+        shapeShifterBoards = new RollingLeaderboard<>(days, capacity, LeaderboardIndex.SHAPESHIFTER_ORDER,
+            ShapeShifterScore::getId, score -> dayOf(score.getCreatedAt()),
+            (day, limit) -> shapeShifterScoreRepository
+                .findByCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByScoreDescIdAsc(
+                    day.atStartOfDay(), day.plusDays(1).atStartOfDay(), PageRequest.of(0, limit)));
+
+        LocalDate today = LocalDate.now();
+        emojiBoards.load(today);
+        mindloopBoards.load(today);
+        shapeShifterBoards.load(today);
+
+        System.out.println("🗓️ Windowed leaderboards loaded for the last " + days + " days");
+    }
+
+    public List<EmojiScore> emojiTop(LeaderboardWindow window) {
+        return emojiBoards.top(window.getDays(), LeaderboardIndex.LEADERBOARD_SIZE, LocalDate.now());
+    }
+
+    public List<MindloopScore> mindloopTop(LeaderboardWindow window) {
+        return mindloopBoards.top(window.getDays(), LeaderboardIndex.LEADERBOARD_SIZE, LocalDate.now());
+    }
+
+    public List<ShapeShifterScore> shapeShifterTop(LeaderboardWindow window) {
+        return shapeShifterBoards.top(window.getDays(), LeaderboardIndex.LEADERBOARD_SIZE, LocalDate.now());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmojiScoreSaved(ScoreSavedEvent<EmojiScore> event) {
+        emojiBoards.offer(event.getScore(), LocalDate.now());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMindloopScoreSaved(ScoreSavedEvent<MindloopScore> event) {
+        mindloopBoards.offer(event.getScore(), LocalDate.now());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShapeShifterScoreSaved(ScoreSavedEvent<ShapeShifterScore> event) {
+        shapeShifterBoards.offer(event.getScore(), LocalDate.now());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmojiScoreDeleted(ScoreDeletedEvent<EmojiScore> event) {
+        emojiBoards.remove(event.getScore(), LeaderboardIndex.LEADERBOARD_SIZE, LocalDate.now());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMindloopScoreDeleted(ScoreDeletedEvent<MindloopScore> event) {
+        mindloopBoards.remove(event.getScore(), LeaderboardIndex.LEADERBOARD_SIZE, LocalDate.now());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShapeShifterScoreDeleted(ScoreDeletedEvent<ShapeShifterScore> event) {
+        shapeShifterBoards.remove(event.getScore(), LeaderboardIndex.LEADERBOARD_SIZE, LocalDate.now());
+    }
+
+    private static LocalDate dayOf(LocalDateTime timestamp) {
+        return timestamp != null ? timestamp.toLocalDate() : null;
+    }
+}
@@ -0,0 +1,80 @@
+-- 🟢 Baseline schema (MySQL 8), as Hibernate auto-DDL created it before migrations existed
+-- Flyway owns the schema from here on; run with
+--   spring.flyway.baseline-on-migrate=true
+--   spring.jpa.hibernate.ddl-auto=validate
+-- On an empty database this creates the tables, so V2+ have something to alter. On an
+-- existing database Flyway records version 1 (the default spring.flyway.baseline-version)
+-- as the baseline and skips this file, since these tables are already there; V2+ still run.
+-- Don't change baseline-version: the later migrations must run against both.
+
+CREATE TABLE users (
+    id                    BIGINT       NOT NULL AUTO_INCREMENT,
+    username              VARCHAR(255) NOT NULL,
+    email                 VARCHAR(255) NOT NULL,
+    password              VARCHAR(255) NOT NULL,
+    registration_date     DATETIME(6)  NOT NULL,
+    updated_at            DATETIME(6),
+    original_username     VARCHAR(255),
+    original_email        VARCHAR(255),
+    original_password     VARCHAR(255),
+    score                 INTEGER,
+    level                 INTEGER,
+    average_time_per_game FLOAT(53),
+    games_played          INTEGER,
+    total_correct_answers INTEGER,
+    total_time_played     INTEGER,
+    highest_score         INTEGER,
+    average_score         FLOAT(53),
+    last_played           DATETIME(6),
+    accuracy              FLOAT(53),
+    status                ENUM('ACTIVE', 'BANNED', 'DEACTIVATED') NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE emoji_scores (
+    id              BIGINT      NOT NULL AUTO_INCREMENT,
+    user_id         BIGINT      NOT NULL,
+    score           INTEGER     NOT NULL,
+    level           INTEGER     NOT NULL,
+    time_taken      INTEGER     NOT NULL,
+    correct_answers INTEGER     NOT NULL,
+    total_questions INTEGER     NOT NULL,
+    played_at       DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_emoji_scores_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE mindloop_scores (
+    id              BIGINT      NOT NULL AUTO_INCREMENT,
+    user_id         BIGINT      NOT NULL,
+    score           INTEGER     NOT NULL,
+    level           INTEGER     NOT NULL,
+    time_taken      INTEGER     NOT NULL,
+    correct_answers INTEGER     NOT NULL,
+    total_questions INTEGER     NOT NULL,
+    played_at       DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_mindloop_scores_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE shape_shifter_scores (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    username   VARCHAR(255),
+    level      INTEGER      NOT NULL,
+    score      INTEGER      NOT NULL,
+    streak     INTEGER      NOT NULL,
+    created_at DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE contact_messages (
+    id          INTEGER      NOT NULL AUTO_INCREMENT,
+    name        VARCHAR(255),
+    email       VARCHAR(255),
+    message     TEXT,
+    admin_reply VARCHAR(255),
+    timestamp   DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,78 @@
+-- 🟢 Indexes for the hot score queries (MySQL 8)
+-- Runs on top of V1 (fresh database) or of the baselined existing schema.
+-- Each index is named after the repository method(s) whose plan it serves.
+
+-- 🟢 emoji_scores
+
+-- findByOrderByScoreDescTimeTakenAscIdAsc, findLeaderboardFirstPage, findLeaderboardAfter,
+-- findTop10ByOrderByScoreDesc, countScoresByValue
+CREATE INDEX idx_emoji_scores_rank
+    ON emoji_scores (score DESC, time_taken ASC, id ASC);
+
+-- findByUserOrderByScoreDesc, aggregateByUserId, findHighestScoreByUser,
+-- findAverageScoreByUser, countByUser
+CREATE INDEX idx_emoji_scores_user_score
+    ON emoji_scores (user_id, score DESC);
+
+-- findByUserAndLevelOrderByScoreDesc
+CREATE INDEX idx_emoji_scores_user_level_score
+    ON emoji_scores (user_id, level, score DESC);
+
+-- findByLevelOrderByScoreDescTimeTakenAscIdAsc, findDistinctLevels
+CREATE INDEX idx_emoji_scores_level_rank
+    ON emoji_scores (level, score DESC, time_taken ASC, id ASC);
+
+-- findByPlayedAtGreaterThanEqualAndPlayedAtLessThan... (rolling windows)
+CREATE INDEX idx_emoji_scores_played_at
+    ON emoji_scores (played_at, score DESC, time_taken ASC);
+
+-- 🟢 mindloop_scores
+
+-- findByOrderByScoreDescTimeTakenAscIdAsc, findLeaderboardFirstPage, findLeaderboardAfter,
+-- findTop10ByOrderByScoreDesc, countScoresByValue
+CREATE INDEX idx_mindloop_scores_rank
+    ON mindloop_scores (score DESC, time_taken ASC, id ASC);
+
+-- findByUserOrderByScoreDesc, aggregateByUserId, countByUser
+CREATE INDEX idx_mindloop_scores_user_score
+    ON mindloop_scores (user_id, score DESC);
+
+-- findByUserAndLevelOrderByScoreDesc
+CREATE INDEX idx_mindloop_scores_user_level_score
+    ON mindloop_scores (user_id, level, score DESC);
+
+-- findByLevelOrderByScoreDescTimeTakenAscIdAsc, findDistinctLevels
+CREATE INDEX idx_mindloop_scores_level_rank
+    ON mindloop_scores (level, score DESC, time_taken ASC, id ASC);
+
+-- findByPlayedAtGreaterThanEqualAndPlayedAtLessThan... (rolling windows)
+CREATE INDEX idx_mindloop_scores_played_at
+    ON mindloop_scores (played_at, score DESC, time_taken ASC);
+
+-- 🟢 shape_shifter_scores
+
+-- findByOrderByScoreDescIdAsc, findLeaderboardAfter, findTop10ByOrderByScoreDesc
+CREATE INDEX idx_shape_shifter_scores_rank
+    ON shape_shifter_scores (score DESC, id ASC);
+
+-- findByUsernameOrderByCreatedAtDesc
+CREATE INDEX idx_shape_shifter_scores_username_created
+    ON shape_shifter_scores (username, created_at DESC);
+
+-- findByCreatedAtGreaterThanEqualAndCreatedAtLessThan... (rolling windows)
+CREATE INDEX idx_shape_shifter_scores_created_at
+    ON shape_shifter_scores (created_at, score DESC);
+
+-- 🟢 users / contact_messages
+
+-- findTop10ByOrderByScoreDesc
+CREATE INDEX idx_users_score
+    ON users (score DESC);
+
+-- countRegistrationsBetween
+CREATE INDEX idx_users_registration_date
+    ON users (registration_date);
+
+-- findByEmailOrderByTimestampAsc
+CREATE INDEX idx_contact_messages_email_timestamp
+    ON contact_messages (email, timestamp);
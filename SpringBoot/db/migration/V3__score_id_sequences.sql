@@ -0,0 +1,17 @@
+-- 🟢 Pooled id allocation for score rows
+-- IDENTITY ids force Hibernate to insert one row per round trip. The score entities now draw ids
+-- from these sequence tables (MySQL has no native sequences, Hibernate emulates them with a
+-- one-row next_val table) in blocks of 50, which lets inserts be batched.
+-- Seeded past the current max id plus one allocation block so existing rows can't collide.
+
+CREATE TABLE emoji_scores_seq (next_val BIGINT NOT NULL);
+INSERT INTO emoji_scores_seq (next_val)
+    SELECT COALESCE(MAX(id), 0) + 51 FROM emoji_scores;
+
+CREATE TABLE mindloop_scores_seq (next_val BIGINT NOT NULL);
+INSERT INTO mindloop_scores_seq (next_val)
+    SELECT COALESCE(MAX(id), 0) + 51 FROM mindloop_scores;
+
+CREATE TABLE shape_shifter_scores_seq (next_val BIGINT NOT NULL);
+INSERT INTO shape_shifter_scores_seq (next_val)
+    SELECT COALESCE(MAX(id), 0) + 51 FROM shape_shifter_scores;
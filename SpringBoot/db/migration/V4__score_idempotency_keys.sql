@@ -0,0 +1,12 @@
+-- 🟢 Client-supplied idempotency keys for score submission
+-- Retried submits carry the same key; the unique index is the backstop behind the in-memory
+-- dedup set, so a retry that reaches another node or outlives the set still can't insert twice.
+-- Scoped per user, and NULL keys (clients that don't send one) never collide.
+
+ALTER TABLE emoji_scores
+    ADD COLUMN idempotency_key VARCHAR(64) NULL,
+    ADD CONSTRAINT uk_emoji_scores_user_idempotency_key UNIQUE (user_id, idempotency_key);
+
+ALTER TABLE mindloop_scores
+    ADD COLUMN idempotency_key VARCHAR(64) NULL,
+    ADD CONSTRAINT uk_mindloop_scores_user_idempotency_key UNIQUE (user_id, idempotency_key);
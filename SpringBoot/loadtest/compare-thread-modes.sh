@@ -0,0 +1,99 @@
+#!/usr/bin/env bash
+# 🟢 Platform vs virtual request threads, same database, same DB pool size
+# Starts the app once per playhive.threads.mode, drives score submits and leaderboard reads
+# with wrk, and prints throughput and p99 latency for each. Needs java, curl and wrk.
+#
+#   JAR=target/gamenest1.jar ./loadtest/compare-thread-modes.sh
+#
+# Tunables (env): JAR, PORT, THREADS, CONNECTIONS, DURATION, USERS, DB_POOL_SIZE, and
+# APP_ARGS for anything else the app needs (datasource url, credentials...). Submits are
+# spread over USERS players so the run measures request handling, not one user's row lock.
+set -euo pipefail
+
+JAR=${JAR:-$(ls target/*.jar 2>/dev/null | head -1)}
+PORT=${PORT:-8089}
+THREADS=${THREADS:-4}
+CONNECTIONS=${CONNECTIONS:-200}
+DURATION=${DURATION:-30s}
+USERS=${USERS:-500}
+DB_POOL_SIZE=${DB_POOL_SIZE:-30}
+APP_ARGS=${APP_ARGS:-}
+BASE="http://localhost:$PORT/api/mindloop"
+
+if [ -z "$JAR" ] || [ ! -f "$JAR" ]; then
+    echo "❌ Set JAR to the built application jar" >&2
+    exit 1
+fi
+command -v wrk >/dev/null || { echo "❌ wrk not found on PATH" >&2; exit 1; }
+
+WORK=$(mktemp -d)
+APP_PID=
+cleanup() {
+    [ -n "$APP_PID" ] && kill "$APP_PID" 2>/dev/null || true
+    rm -rf "$WORK"
+}
+trap cleanup EXIT
+
+cat > "$WORK/submit.lua" <<EOF
+wrk.method = "POST"
+wrk.headers["Content-Type"] = "application/json"
+math.randomseed(os.time())
+request = function()
+    local body = string.format(
+        '{"email":"load%d@loadtest.local","score":%d,"level":%d,"timeTaken":%d,"correctAnswers":%d,"totalQuestions":10}',
+        math.random(1, $USERS), math.random(0, 500), math.random(1, 20), math.random(5, 120), math.random(0, 10))
+    return wrk.format(nil, "/api/mindloop/submit-score-by-email-simple", nil, body)
+end
+EOF
+
+start_app() {
+    local mode=$1
+    # Same pool size in both modes; platform mode otherwise runs with Hikari's default of 10
+    java -jar "$JAR" --server.port="$PORT" --playhive.threads.mode="$mode" \
+        --spring.datasource.hikari.maximum-pool-size="$DB_POOL_SIZE" \
+        --playhive.threads.virtual.db-pool-size="$DB_POOL_SIZE" \
+        $APP_ARGS > "$WORK/app-$mode.log" 2>&1 &
+    APP_PID=$!
+    for _ in $(seq 1 120); do
+        if curl -sf "http://localhost:$PORT/api/users/health" >/dev/null; then
+            return 0
+        fi
+        sleep 1
+    done
+    echo "❌ App didn't come up in $mode mode, see its log:" >&2
+    tail -50 "$WORK/app-$mode.log" >&2
+    exit 1
+}
+
+stop_app() {
+    kill "$APP_PID"
+    wait "$APP_PID" 2>/dev/null || true
+    APP_PID=
+}
+
+# "<requests/sec> <p99>" from wrk --latency output
+summarize() {
+    awk '/Requests\/sec/ { rps = $2 } $1 == "99%" { p99 = $2 } END { print rps, p99 }' "$1"
+}
+
+RESULTS="$WORK/results"
+for mode in platform virtual; do
+    echo "🚀 $mode threads"
+    start_app "$mode"
+
+    # Warm-up also creates the USERS players, so the measured run is all existing users
+    wrk -t"$THREADS" -c"$CONNECTIONS" -d10s -s "$WORK/submit.lua" "$BASE" >/dev/null
+
+    wrk -t"$THREADS" -c"$CONNECTIONS" -d"$DURATION" --latency -s "$WORK/submit.lua" "$BASE" > "$WORK/$mode-submit.txt"
+    wrk -t"$THREADS" -c"$CONNECTIONS" -d"$DURATION" --latency "$BASE/leaderboard" > "$WORK/$mode-leaderboard.txt"
+
+    echo "$mode submit $(summarize "$WORK/$mode-submit.txt")" >> "$RESULTS"
+    echo "$mode leaderboard $(summarize "$WORK/$mode-leaderboard.txt")" >> "$RESULTS"
+    stop_app
+done
+
+echo
+printf '%-10s %-12s %14s %10s\n' mode endpoint requests/sec p99
+while read -r mode endpoint rps p99; do
+    printf '%-10s %-12s %14s %10s\n' "$mode" "$endpoint" "$rps" "$p99"
+done < "$RESULTS"